@@ -0,0 +1,253 @@
+package com.unitconverter;
+
+import com.unitconverter.models.ConversionRequest;
+import com.unitconverter.models.MutableConversionRequest;
+import com.unitconverter.models.MutableConversionResult;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Conversion requests and their results as flat primitive columns: a packed unit pair
+ * from {@link ConversionLogic#pairKey}, the input value, the result and, if enabled, a
+ * timestamp per entry. {@link #clear()} keeps the arrays, so a pipeline can refill and
+ * convert the same batch over and over without allocating.
+ */
+public final class ConversionBatch {
+    private long[] pairs;
+    private double[] values;
+    private double[] results;
+    private long[] timestamps;
+    private int size;
+    private Grouping grouping;
+    
+    
+    public ConversionBatch() {
+        this(16, false);
+    }
+    
+    /**
+     * @param withTimestamps whether to keep a timestamp column; without one, timestamps
+     *        passed to {@code add} are dropped and read back as 0
+     */
+    public ConversionBatch(int initialCapacity, boolean withTimestamps) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative: " + initialCapacity);
+        }
+        pairs = new long[initialCapacity];
+        values = new double[initialCapacity];
+        results = new double[initialCapacity];
+        timestamps = withTimestamps ? new long[initialCapacity] : null;
+    }
+    
+    
+    /**
+     * Appends an entry and returns its index.
+     *
+     * @throws IllegalArgumentException if {@code pairKey} does not name known units
+     */
+    public int add(long pairKey, double value) {
+        return add(pairKey, value, 0);
+    }
+    
+    public int add(long pairKey, double value, long timestamp) {
+        if (!ConversionLogic.isPairKey(pairKey)) {
+            throw new IllegalArgumentException("Unknown unit pair key: " + pairKey);
+        }
+        if (size == pairs.length) {
+            grow();
+        }
+        pairs[size] = pairKey;
+        values[size] = value;
+        results[size] = Double.NaN;
+        if (timestamps != null) {
+            timestamps[size] = timestamp;
+        }
+        return size++;
+    }
+    
+    public int add(ConversionRequest request) {
+        return add(request.getPairKey(), request.getInputValue(), request.getTimestamp());
+    }
+    
+    public int add(MutableConversionRequest request) {
+        return add(request.getPairKey(), request.getInputValue(), request.getTimestamp());
+    }
+    
+    /**
+     * Converts every entry; each result equals {@link ConversionLogic#convert} for that
+     * entry's pair and value.
+     */
+    public void convert() {
+        for (int i = 0; i < size; i++) {
+            results[i] = ConversionLogic.convert(pairs[i], values[i]);
+        }
+    }
+    
+    /**
+     * Converts every entry through its unit pair's {@link ConversionPlan}. Each distinct
+     * pair is looked up once, through a small table kept between calls, and its scale and
+     * offset are applied to the entries in one sweep, so mixed batches avoid a registry
+     * lookup per entry. Like the other plan-based paths, results can differ from
+     * {@link #convert()} in the last bit.
+     *
+     * @throws IllegalArgumentException if an entry's pair key does not name known units
+     */
+    public void convertGrouped() {
+        if (size == 0) {
+            return;
+        }
+        if (grouping == null) {
+            grouping = new Grouping();
+        }
+        grouping.convert(this);
+    }
+    
+    
+    public int size() {
+        return size;
+    }
+    
+    /** Forgets all entries but keeps the allocated columns. */
+    public void clear() {
+        size = 0;
+    }
+    
+    public long getPairKey(int index) {
+        return pairs[Objects.checkIndex(index, size)];
+    }
+    
+    public double getValue(int index) {
+        return values[Objects.checkIndex(index, size)];
+    }
+    
+    /** Returns the result of entry {@code index}, or NaN before {@link #convert()}. */
+    public double getResult(int index) {
+        return results[Objects.checkIndex(index, size)];
+    }
+    
+    public long getTimestamp(int index) {
+        Objects.checkIndex(index, size);
+        return timestamps != null ? timestamps[index] : 0;
+    }
+    
+    /** Copies entry {@code index} into {@code result}, which is returned. */
+    public MutableConversionResult read(int index, MutableConversionResult result) {
+        Objects.checkIndex(index, size);
+        return result.set(pairs[index], values[index], results[index], timestamps != null ? timestamps[index] : 0);
+    }
+    
+    private void grow() {
+        int capacity = Math.max(16, pairs.length * 2);
+        pairs = Arrays.copyOf(pairs, capacity);
+        values = Arrays.copyOf(values, capacity);
+        results = Arrays.copyOf(results, capacity);
+        if (timestamps != null) {
+            timestamps = Arrays.copyOf(timestamps, capacity);
+        }
+    }
+    
+    
+    /**
+     * State for {@link #convertGrouped()}: an open-addressing table from pair key to group,
+     * each group's plan coefficients, and the group of every entry. Plans never change, so
+     * the table is kept for later calls.
+     */
+    private static final class Grouping {
+        private long[] tableKeys = new long[64];
+        private int[] tableGroups = new int[64];
+        private double[] scales = new double[32];
+        private double[] offsets = new double[32];
+        private int groupCount;
+        private boolean affine;
+        private int[] groupOf = new int[0];
+        
+        Grouping() {
+            Arrays.fill(tableKeys, -1);
+        }
+        
+        void convert(ConversionBatch batch) {
+            int size = batch.size;
+            long[] pairs = batch.pairs;
+            if (groupOf.length < size) {
+                groupOf = new int[pairs.length];
+            }
+            
+            long last = -1;
+            int lastGroup = -1;
+            for (int i = 0; i < size; i++) {
+                long pair = pairs[i];
+                if (pair != last) {
+                    lastGroup = groupOf(pair);
+                    last = pair;
+                }
+                groupOf[i] = lastGroup;
+            }
+            
+            double[] values = batch.values;
+            double[] results = batch.results;
+            // a zero offset is left out rather than added, which would turn -0.0 into 0.0
+            if (!affine) {
+                for (int i = 0; i < size; i++) {
+                    results[i] = scales[groupOf[i]] * values[i];
+                }
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                int group = groupOf[i];
+                double offset = offsets[group];
+                results[i] = offset == 0 ? scales[group] * values[i] : scales[group] * values[i] + offset;
+            }
+        }
+        
+        private int groupOf(long pair) {
+            int mask = tableKeys.length - 1;
+            int slot = slot(pair, mask);
+            while (tableKeys[slot] != -1) {
+                if (tableKeys[slot] == pair) {
+                    return tableGroups[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            
+            ConversionPlan plan = ConversionLogic.plan(ConversionLogic.categoryOfPair(pair),
+                ConversionLogic.fromUnitOfPair(pair), ConversionLogic.toUnitOfPair(pair));
+            int group = groupCount++;
+            if (group == scales.length) {
+                scales = Arrays.copyOf(scales, group * 2);
+                offsets = Arrays.copyOf(offsets, group * 2);
+            }
+            scales[group] = plan.getScale();
+            offsets[group] = plan.getOffset();
+            affine |= plan.getOffset() != 0;
+            tableKeys[slot] = pair;
+            tableGroups[slot] = group;
+            if (groupCount * 2 > tableKeys.length) {
+                rehash();
+            }
+            return group;
+        }
+        
+        private void rehash() {
+            long[] keys = tableKeys;
+            int[] groups = tableGroups;
+            tableKeys = new long[keys.length * 2];
+            tableGroups = new int[keys.length * 2];
+            Arrays.fill(tableKeys, -1);
+            int mask = tableKeys.length - 1;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != -1) {
+                    int slot = slot(keys[i], mask);
+                    while (tableKeys[slot] != -1) {
+                        slot = (slot + 1) & mask;
+                    }
+                    tableKeys[slot] = keys[i];
+                    tableGroups[slot] = groups[i];
+                }
+            }
+        }
+        
+        private static int slot(long pair, int mask) {
+            return (int) ((pair * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        }
+    }
+}
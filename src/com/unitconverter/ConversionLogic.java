@@ -1,185 +1,803 @@
 package com.unitconverter;
 
+import com.unitconverter.exceptions.InvalidUnitException;
+import com.unitconverter.models.ConversionRequest;
+import com.unitconverter.models.ConversionResult;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+
 
 public class ConversionLogic {
     
+    private static final UnitRegistry REGISTRY = UnitRegistry.getDefault();
+    
+    
+    private static final PairTable<ConversionPlan> PLANS = new PairTable<>();
+    
+    
+    private static final PairTable<Specialization> SPECIALIZED = new PairTable<>();
+    private static final int MAX_SPECIALIZED = 1024;
+    private static volatile int specializationThreshold = 10000;
+    
+    
+    public static final String PRECISION_PROPERTY = "unitconverter.precision";
+    private static volatile boolean highPrecision = "high".equalsIgnoreCase(System.getProperty(PRECISION_PROPERTY));
+    
+    // Bound on the relative error of a plan's scale * x + offset, counting the rounding of
+    // each definition factor, of chained and prefixed factors, and of the plan arithmetic.
+    private static final double PLAN_ERROR = 128 * Math.ulp(1.0);
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final LongAdder EXACT_FAST = new LongAdder();
+    private static final LongAdder EXACT_SLOW = new LongAdder();
+    
+    
+    public static final int DEFAULT_SPLIT_SIZE = 1 << 14;
+    private static volatile int parallelThreshold = 1 << 18;
+    
     
     private ConversionLogic() {}
     
     
     public static double convert(String category, String fromUnit, String toUnit, double value) {
         if (fromUnit.equals(toUnit)) {
-            return value; 
-        }
-        
-        switch (category) {
-            case "Length":
-                return convertLength(fromUnit, toUnit, value);
-            case "Weight":
-                return convertWeight(fromUnit, toUnit, value);
-            case "Temperature":
-                return convertTemperature(fromUnit, toUnit, value);
-            case "Volume":
-                return convertVolume(fromUnit, toUnit, value);
-            case "Area":
-                return convertArea(fromUnit, toUnit, value);
-            default:
-                throw new IllegalArgumentException("Unknown category: " + category);
+            return value;
         }
+        
+        int categoryId = categoryId(category);
+        return convert(categoryId, unitId(categoryId, fromUnit), unitId(categoryId, toUnit), value);
     }
     
-    
-    private static double convertLength(String fromUnit, String toUnit, double value) {
+    /**
+     * Converts using pre-resolved handles from {@link #categoryId} and {@link #unitId}.
+     * Produces exactly the same result as the String overload.
+     */
+    public static double convert(int categoryId, int fromUnit, int toUnit, double value) {
+        if (fromUnit == toUnit) {
+            return value;
+        }
         
-        double meters = toMeters(fromUnit, value);
+        double[] factors = REGISTRY.factors(categoryId);
+        if (factors != null) {
+            return value * factors[fromUnit] / factors[toUnit];
+        }
         
+        double[] offsets = REGISTRY.offsets(categoryId);
+        double[] numerators = REGISTRY.numerators(categoryId);
+        double[] denominators = REGISTRY.denominators(categoryId);
         
-        return fromMeters(toUnit, meters);
+        double base = (value - offsets[fromUnit]) * numerators[fromUnit] / denominators[fromUnit];
+        return base * denominators[toUnit] / numerators[toUnit] + offsets[toUnit];
     }
     
-    private static double toMeters(String unit, double value) {
-        switch (unit) {
-            case "Meter": return value;
-            case "Kilometer": return value * 1000;
-            case "Centimeter": return value * 0.01;
-            case "Millimeter": return value * 0.001;
-            case "Mile": return value * 1609.344;
-            case "Yard": return value * 0.9144;
-            case "Foot": return value * 0.3048;
-            case "Inch": return value * 0.0254;
-            default: throw new IllegalArgumentException("Unknown length unit: " + unit);
-        }
+    
+    /**
+     * Converts a value into every unit of its category, in registry unit order.
+     * Each entry equals what {@link #convert} returns for that target unit.
+     */
+    public static double[] convertToAll(String category, String fromUnit, double value) {
+        int categoryId = categoryId(category);
+        double[] results = new double[getUnitCount(categoryId)];
+        convertToAll(categoryId, unitId(categoryId, fromUnit), value, results);
+        return results;
     }
     
-    private static double fromMeters(String unit, double meters) {
-        switch (unit) {
-            case "Meter": return meters;
-            case "Kilometer": return meters / 1000;
-            case "Centimeter": return meters / 0.01;
-            case "Millimeter": return meters / 0.001;
-            case "Mile": return meters / 1609.344;
-            case "Yard": return meters / 0.9144;
-            case "Foot": return meters / 0.3048;
-            case "Inch": return meters / 0.0254;
-            default: throw new IllegalArgumentException("Unknown length unit: " + unit);
+    
+    public static void convertToAll(int categoryId, int fromUnit, double value, double[] results) {
+        int count = getUnitCount(categoryId);
+        if (results.length < count) {
+            throw new IllegalArgumentException(
+                "Result array needs " + count + " slots, got " + results.length);
+        }
+        
+        double[] factors = REGISTRY.factors(categoryId);
+        if (factors != null) {
+            double base = value * factors[fromUnit];
+            for (int i = 0; i < count; i++) {
+                results[i] = base / factors[i];
+            }
+        } else {
+            double[] offsets = REGISTRY.offsets(categoryId);
+            double[] numerators = REGISTRY.numerators(categoryId);
+            double[] denominators = REGISTRY.denominators(categoryId);
+            
+            double base = (value - offsets[fromUnit]) * numerators[fromUnit] / denominators[fromUnit];
+            for (int i = 0; i < count; i++) {
+                results[i] = base * denominators[i] / numerators[i] + offsets[i];
+            }
+        }
+        if (fromUnit < count) {
+            results[fromUnit] = value;
         }
     }
     
+    /**
+     * Converts {@code len} values starting at {@code off} from {@code in} into {@code out}
+     * using the cached {@link ConversionPlan} for the unit pair.
+     */
+    public static void convertAll(String category, String fromUnit, String toUnit,
+                                  double[] in, double[] out, int off, int len) {
+        plan(category, fromUnit, toUnit).applyTo(in, out, off, len);
+    }
+    
+    
+    public static void convertInPlace(String category, String fromUnit, String toUnit,
+                                      double[] values, int off, int len) {
+        plan(category, fromUnit, toUnit).applyTo(values, values, off, len);
+    }
+    
+    /**
+     * Converts the remaining values of {@code in} into {@code out} with the cached plan,
+     * advancing both positions. Direct and memory-mapped buffers are converted off-heap.
+     */
+    public static void convertAll(String category, String fromUnit, String toUnit,
+                                  DoubleBuffer in, DoubleBuffer out) {
+        plan(category, fromUnit, toUnit).applyTo(in, out);
+    }
+    
+    public static void convertInPlace(String category, String fromUnit, String toUnit, DoubleBuffer values) {
+        plan(category, fromUnit, toUnit).applyTo(values, values);
+    }
+    
+    /**
+     * Converts {@code count} doubles spaced {@code stride} bytes apart, in each buffer's byte
+     * order; see {@link ConversionPlan#applyTo(ByteBuffer, int, ByteBuffer, int, int, int)}.
+     */
+    public static void convertAll(String category, String fromUnit, String toUnit,
+                                  ByteBuffer in, int inOffset, ByteBuffer out, int outOffset,
+                                  int count, int stride) {
+        plan(category, fromUnit, toUnit).applyTo(in, inOffset, out, outOffset, count, stride);
+    }
+    
+    public static void convertInPlace(String category, String fromUnit, String toUnit,
+                                      ByteBuffer values, int offset, int count, int stride) {
+        plan(category, fromUnit, toUnit).applyTo(values, offset, values, offset, count, stride);
+    }
+    
     
-    private static double convertWeight(String fromUnit, String toUnit, double value) {
+    /**
+     * Like {@link #convertAll}, but ranges of at least {@link #getParallelThreshold()} values
+     * are split across the common {@link ForkJoinPool}.
+     */
+    public static void convertAllParallel(String category, String fromUnit, String toUnit,
+                                          double[] in, double[] out, int off, int len) {
+        convertAllParallel(category, fromUnit, toUnit, in, out, off, len,
+            ForkJoinPool.commonPool(), DEFAULT_SPLIT_SIZE);
+    }
+    
+    /**
+     * Splits the range into chunks of at most {@code splitSize} values (each chunk is one
+     * sequential sweep over contiguous memory) and converts them on {@code pool}.
+     */
+    public static void convertAllParallel(String category, String fromUnit, String toUnit,
+                                          double[] in, double[] out, int off, int len,
+                                          ForkJoinPool pool, int splitSize) {
+        if (splitSize <= 0) {
+            throw new IllegalArgumentException("Split size must be positive: " + splitSize);
+        }
         
-        double kilograms = toKilograms(fromUnit, value);
+        ConversionPlan plan = plan(category, fromUnit, toUnit);
+        if (len < parallelThreshold || len <= splitSize) {
+            plan.applyTo(in, out, off, len);
+            return;
+        }
         
+        Objects.checkFromIndexSize(off, len, in.length);
+        Objects.checkFromIndexSize(off, len, out.length);
+        pool.invoke(new BulkConversionTask(plan, in, out, off, len, splitSize));
+    }
+    
+    
+    /**
+     * Converts a mixed list of requests and returns their results in the same order.
+     * Requests are bucketed by unit pair through {@link ConversionBatch#convertGrouped()},
+     * so each pair's plan is resolved once and applied as one array sweep; results match
+     * {@link #convertAll}, which can differ from {@link #convert} in the last bit. A request
+     * with unknown units or a non-finite result gets an error result instead.
+     */
+    public static List<ConversionResult> convertBatch(List<ConversionRequest> requests) {
+        int count = requests.size();
+        ConversionResult[] results = new ConversionResult[count];
+        ConversionBatch batch = new ConversionBatch(count, false);
+        int[] entries = new int[count];
+        for (int i = 0; i < count; i++) {
+            ConversionRequest request = requests.get(i);
+            try {
+                entries[batch.add(request)] = i;
+            } catch (IllegalArgumentException e) {
+                results[i] = ConversionResult.error(request, e.getMessage());
+            }
+        }
+        
+        batch.convertGrouped();
+        for (int k = 0; k < batch.size(); k++) {
+            ConversionRequest request = requests.get(entries[k]);
+            double result = batch.getResult(k);
+            results[entries[k]] = Double.isFinite(result)
+                ? new ConversionResult(request, result, 0)
+                : ConversionResult.error(request, "Result is not finite: " + result);
+        }
         
-        return fromKilograms(toUnit, kilograms);
+        List<ConversionResult> list = new ArrayList<>(count);
+        for (ConversionResult result : results) {
+            list.add(result);
+        }
+        return list;
+    }
+    
+    
+    public static DoubleStream convertStream(String category, String fromUnit, String toUnit,
+                                             DoubleStream values) {
+        return values.map(plan(category, fromUnit, toUnit));
+    }
+    
+    
+    public static int getParallelThreshold() {
+        return parallelThreshold;
     }
     
-    private static double toKilograms(String unit, double value) {
-        switch (unit) {
-            case "Kilogram": return value;
-            case "Gram": return value * 0.001;
-            case "Milligram": return value * 0.000001;
-            case "Pound": return value * 0.453592;
-            case "Ounce": return value * 0.0283495;
-            case "Ton": return value * 1000;
-            default: throw new IllegalArgumentException("Unknown weight unit: " + unit);
+    public static void setParallelThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Parallel threshold cannot be negative: " + threshold);
         }
+        parallelThreshold = threshold;
+    }
+    
+    
+    public static BigDecimal convertExact(String category, String fromUnit, String toUnit,
+                                          BigDecimal value, MathContext precision) {
+        int categoryId = categoryId(category);
+        return convertExact(categoryId, unitId(categoryId, fromUnit), unitId(categoryId, toUnit), value, precision);
     }
     
-    private static double fromKilograms(String unit, double kilograms) {
-        switch (unit) {
-            case "Kilogram": return kilograms;
-            case "Gram": return kilograms / 0.001;
-            case "Milligram": return kilograms / 0.000001;
-            case "Pound": return kilograms / 0.453592;
-            case "Ounce": return kilograms / 0.0283495;
-            case "Ton": return kilograms / 1000;
-            default: throw new IllegalArgumentException("Unknown weight unit: " + unit);
+    /**
+     * Converts {@code value} using the exact factors from the definition file and rounds the
+     * result to {@code precision}, as if the conversion were done in unlimited precision.
+     * The double path is tried first; it is used whenever its error bound cannot change the
+     * rounded digits, and BigDecimal arithmetic is used otherwise. Trailing zeros are stripped.
+     *
+     * @throws ArithmeticException if {@code precision} is unlimited and the result has no
+     *         finite decimal expansion, or the rounding mode is UNNECESSARY and rounding is needed
+     */
+    public static BigDecimal convertExact(int categoryId, int fromUnit, int toUnit,
+                                          BigDecimal value, MathContext precision) {
+        ConversionPlan plan = plan(categoryId, fromUnit, toUnit);
+        int digits = precision.getPrecision();
+        if (digits > 0 && digits <= MAX_FAST_DIGITS) {
+            BigDecimal result = roundFast(plan, value, digits, 0, precision.getRoundingMode());
+            if (result != null) {
+                EXACT_FAST.increment();
+                return result.stripTrailingZeros();
+            }
         }
+        
+        EXACT_SLOW.increment();
+        BigDecimal[] quotient = exactQuotient(categoryId, fromUnit, toUnit, value);
+        BigDecimal result = digits == 0 ? quotient[0].divide(quotient[1]) : quotient[0].divide(quotient[1], precision);
+        return result.stripTrailingZeros();
     }
     
     
-    private static double convertTemperature(String fromUnit, String toUnit, double value) {
+    public static BigDecimal convertExact(String category, String fromUnit, String toUnit,
+                                          BigDecimal value, int scale, RoundingMode rounding) {
+        int categoryId = categoryId(category);
+        return convertExact(categoryId, unitId(categoryId, fromUnit), unitId(categoryId, toUnit),
+            value, scale, rounding);
+    }
+    
+    /**
+     * Like {@link #convertExact(int, int, int, BigDecimal, MathContext)} but rounds to a fixed
+     * number of decimal places; the result always has exactly {@code scale} of them.
+     */
+    public static BigDecimal convertExact(int categoryId, int fromUnit, int toUnit,
+                                          BigDecimal value, int scale, RoundingMode rounding) {
+        ConversionPlan plan = plan(categoryId, fromUnit, toUnit);
+        BigDecimal result = roundFast(plan, value, 0, scale, rounding);
+        if (result != null) {
+            EXACT_FAST.increment();
+            return result;
+        }
         
-        double celsius = toCelsius(fromUnit, value);
+        EXACT_SLOW.increment();
+        BigDecimal[] quotient = exactQuotient(categoryId, fromUnit, toUnit, value);
+        return quotient[0].divide(quotient[1], scale, rounding);
+    }
+    
+    
+    public static boolean isHighPrecision() {
+        return highPrecision;
+    }
+    
+    /**
+     * Selects whether the UI converts with {@link #convertExact}. Defaults to the
+     * {@value #PRECISION_PROPERTY} system property ("high" or "standard").
+     */
+    public static void setHighPrecision(boolean enabled) {
+        highPrecision = enabled;
+    }
+    
+    
+    public static long getExactFastPathCount() {
+        return EXACT_FAST.sum();
+    }
+    
+    public static long getExactSlowPathCount() {
+        return EXACT_SLOW.sum();
+    }
+    
+    public static void resetExactCounters() {
+        EXACT_FAST.reset();
+        EXACT_SLOW.reset();
+    }
+    
+    /**
+     * Rounds the double result of {@code plan} to {@code digits} significant digits, or to
+     * {@code scale} decimal places when {@code digits} is 0. Returns null when the error
+     * bound leaves the rounded value in doubt.
+     */
+    private static BigDecimal roundFast(ConversionPlan plan, BigDecimal value, int digits, int scale,
+                                        RoundingMode rounding) {
+        if (rounding == RoundingMode.UNNECESSARY) {
+            return null;
+        }
         
+        double x = value.doubleValue();
+        double result = plan.applyAsDouble(x);
+        if (!(Math.abs(x) >= 0x1p-900 || x == 0 && value.signum() == 0) || Math.abs(result) > 0x1p900) {
+            return null;
+        }
         
-        return fromCelsius(toUnit, celsius);
+        double offsets = 0;
+        if (!plan.isLinear()) {
+            double[] unitOffsets = REGISTRY.offsets(plan.getCategoryId());
+            offsets = Math.abs(unitOffsets[plan.getToUnit()])
+                + Math.abs(unitOffsets[plan.getFromUnit()] * plan.getScale());
+        }
+        double bound = (Math.abs(plan.getScale() * x) + offsets + Math.abs(result)) * PLAN_ERROR;
+        double magnitude = Math.abs(result);
+        if (digits > 0) {
+            if (bound == 0) {
+                return result == 0 ? BigDecimal.ZERO : null;
+            }
+            if (result == 0) {
+                return null;
+            }
+            scale = digits - 1 - (int) Math.floor(Math.log10(magnitude));
+        }
+        
+        double scaled;
+        double scaledBound;
+        if (scale >= 0 && scale < POWERS_OF_TEN.length) {
+            scaled = magnitude * POWERS_OF_TEN[scale];
+            scaledBound = bound * POWERS_OF_TEN[scale];
+        } else if (scale < 0 && -scale < POWERS_OF_TEN.length) {
+            scaled = magnitude / POWERS_OF_TEN[-scale];
+            scaledBound = bound / POWERS_OF_TEN[-scale];
+        } else {
+            return null;
+        }
+        scaledBound += scaled * 0x1p-50;
+        if (scaled >= 0x1p52) {
+            return null;
+        }
+        if (digits > 0 && (scaled - scaledBound < POWERS_OF_TEN[digits - 1]
+                || scaled + scaledBound >= POWERS_OF_TEN[digits] - 1)) {
+            return null;
+        }
+        
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        boolean up;
+        switch (rounding) {
+            case HALF_UP:
+            case HALF_DOWN:
+            case HALF_EVEN:
+                if (Math.abs(fraction - 0.5) <= scaledBound) {
+                    return null;
+                }
+                up = fraction > 0.5;
+                break;
+            default:
+                if (fraction <= scaledBound || 1 - fraction <= scaledBound) {
+                    return null;
+                }
+                up = rounding == RoundingMode.UP
+                    || rounding == RoundingMode.CEILING && result > 0
+                    || rounding == RoundingMode.FLOOR && result < 0;
+                break;
+        }
+        
+        long unscaled = (long) floor + (up ? 1 : 0);
+        return BigDecimal.valueOf(result < 0 ? -unscaled : unscaled, scale);
+    }
+    
+    /** Returns {numerator, denominator} of the exact converted value. */
+    private static BigDecimal[] exactQuotient(int categoryId, int fromUnit, int toUnit, BigDecimal value) {
+        BigDecimal[] numerators = REGISTRY.exactNumerators(categoryId);
+        BigDecimal[] denominators = REGISTRY.exactDenominators(categoryId);
+        BigDecimal[] offsets = REGISTRY.exactOffsets(categoryId);
+        
+        // ((v - off[f]) * num[f] / den[f]) * den[t] / num[t] + off[t] over one common denominator
+        BigDecimal denominator = denominators[fromUnit].multiply(numerators[toUnit]);
+        BigDecimal numerator = value.subtract(offsets[fromUnit])
+            .multiply(numerators[fromUnit]).multiply(denominators[toUnit])
+            .add(offsets[toUnit].multiply(denominator));
+        return new BigDecimal[] {numerator, denominator};
+    }
+    
+    
+    /**
+     * Converts between unit expressions such as "km/h" and "m/s" or "kg/m^3" and "lb/ft^3".
+     * Both expressions must reduce to the same dimension.
+     */
+    public static double convertExpression(String fromExpression, String toExpression, double value)
+            throws InvalidUnitException {
+        return UnitExpression.compile(fromExpression, toExpression).applyAsDouble(value);
+    }
+    
+    
+    public static ConversionPlan planExpression(String fromExpression, String toExpression)
+            throws InvalidUnitException {
+        return UnitExpression.compile(fromExpression, toExpression);
     }
     
-    private static double toCelsius(String unit, double value) {
-        switch (unit) {
-            case "Celsius": return value;
-            case "Fahrenheit": return (value - 32) * 5/9;
-            case "Kelvin": return value - 273.15;
-            default: throw new IllegalArgumentException("Unknown temperature unit: " + unit);
+    
+    public static ConversionPlan plan(String category, String fromUnit, String toUnit) {
+        int categoryId = categoryId(category);
+        return plan(categoryId, unitId(categoryId, fromUnit), unitId(categoryId, toUnit));
+    }
+    
+    /**
+     * Returns the cached plan for a unit pair, compiling it on first use.
+     * Repeated calls for the same pair return the same instance.
+     */
+    public static ConversionPlan plan(int categoryId, int fromUnit, int toUnit) {
+        ConversionPlan plan = PLANS.get(categoryId, fromUnit, toUnit);
+        if (plan != null) {
+            return plan;
         }
+        return PLANS.computeIfAbsent(categoryId, fromUnit, toUnit, () -> compilePlan(categoryId, fromUnit, toUnit));
+    }
+    
+    public static DoubleUnaryOperator converter(String category, String fromUnit, String toUnit) {
+        int categoryId = categoryId(category);
+        return converter(categoryId, unitId(categoryId, fromUnit), unitId(categoryId, toUnit));
     }
     
-    private static double fromCelsius(String unit, double celsius) {
-        switch (unit) {
-            case "Celsius": return celsius;
-            case "Fahrenheit": return (celsius * 9/5) + 32;
-            case "Kelvin": return celsius + 273.15;
-            default: throw new IllegalArgumentException("Unknown temperature unit: " + unit);
+    /**
+     * Returns a converter for a unit pair and counts the call as one use of the pair.
+     * Below the specialization threshold this is the pair's {@link ConversionPlan}; after
+     * it, a generated class with the plan's scale and offset compiled in as constants, which
+     * the JIT can fold into hot call sites. Both give identical results.
+     */
+    public static DoubleUnaryOperator converter(int categoryId, int fromUnit, int toUnit) {
+        Specialization specialization = SPECIALIZED.get(categoryId, fromUnit, toUnit);
+        if (specialization == null) {
+            ConversionPlan plan = plan(categoryId, fromUnit, toUnit);
+            if (SPECIALIZED.size() >= MAX_SPECIALIZED) {
+                return plan;
+            }
+            specialization = SPECIALIZED.computeIfAbsent(categoryId, fromUnit, toUnit, () -> new Specialization(plan));
         }
+        return specialization.use(specializationThreshold);
     }
     
     
-    private static double convertVolume(String fromUnit, String toUnit, double value) {
+    public static int getSpecializationThreshold() {
+        return specializationThreshold;
+    }
+    
+    /**
+     * Sets how many {@link #converter} calls a unit pair needs before a specialized class
+     * is generated for it. 0 specializes immediately; {@code Integer.MAX_VALUE} never does.
+     */
+    public static void setSpecializationThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Specialization threshold cannot be negative: " + threshold);
+        }
+        specializationThreshold = threshold;
+    }
+    
+    
+    public static int getSpecializedCount() {
+        int[] count = new int[1];
+        SPECIALIZED.forEach(specialization -> {
+            if (specialization.converter != null) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+    
+    /**
+     * Forgets all generated converters and use counts. The generated classes are unloaded
+     * once callers drop the instances they were handed.
+     */
+    public static void clearSpecializedConverters() {
+        SPECIALIZED.clear();
+    }
+    
+    private static ConversionPlan compilePlan(int categoryId, int fromUnit, int toUnit) {
+        checkUnit(categoryId, fromUnit);
+        checkUnit(categoryId, toUnit);
         
-        double liters = toLiters(fromUnit, value);
+        if (fromUnit == toUnit) {
+            return new ConversionPlan(categoryId, fromUnit, toUnit, 1, 0);
+        }
+        
+        double[] factors = REGISTRY.factors(categoryId);
+        if (factors != null) {
+            return new ConversionPlan(categoryId, fromUnit, toUnit,
+                factors[fromUnit] / factors[toUnit], 0);
+        }
         
+        double[] offsets = REGISTRY.offsets(categoryId);
+        double[] numerators = REGISTRY.numerators(categoryId);
+        double[] denominators = REGISTRY.denominators(categoryId);
         
-        return fromLiters(toUnit, liters);
+        
+        double scale = numerators[fromUnit] / denominators[fromUnit]
+            * (denominators[toUnit] / numerators[toUnit]);
+        double offset = offsets[toUnit] - offsets[fromUnit] * scale;
+        return new ConversionPlan(categoryId, fromUnit, toUnit, scale, offset);
+    }
+    
+    private static void checkUnit(int categoryId, int unit) {
+        if (categoryId < 0 || categoryId >= REGISTRY.getCategoryCount()) {
+            throw new IllegalArgumentException("Unknown category id " + categoryId);
+        }
+        if (!REGISTRY.isUnit(categoryId, unit)) {
+            throw new IllegalArgumentException("Unknown unit id " + unit + " for category "
+                + REGISTRY.getCategoryName(categoryId));
+        }
+    }
+    
+    
+    public static int categoryId(String category) {
+        int id = REGISTRY.categoryId(category);
+        if (id < 0) {
+            throw new IllegalArgumentException("Unknown category: " + category);
+        }
+        return id;
     }
     
-    private static double toLiters(String unit, double value) {
-        switch (unit) {
-            case "Liter": return value;
-            case "Milliliter": return value * 0.001;
-            case "Gallon": return value * 3.78541;
-            case "Cubic Meter": return value * 1000;
-            default: throw new IllegalArgumentException("Unknown volume unit: " + unit);
+    
+    public static int unitId(int categoryId, String unit) {
+        int id = REGISTRY.unitId(categoryId, unit);
+        if (id < 0) {
+            throw new IllegalArgumentException(
+                "Unknown " + REGISTRY.getCategoryName(categoryId).toLowerCase(Locale.ROOT) + " unit: " + unit);
         }
+        return id;
     }
     
-    private static double fromLiters(String unit, double liters) {
-        switch (unit) {
-            case "Liter": return liters;
-            case "Milliliter": return liters / 0.001;
-            case "Gallon": return liters / 3.78541;
-            case "Cubic Meter": return liters / 1000;
-            default: throw new IllegalArgumentException("Unknown volume unit: " + unit);
+    
+    /**
+     * Packs a category and two unit IDs into one long, the compact form of a unit pair used
+     * by {@link ConversionBatch} and {@link ConversionRequest}.
+     *
+     * @throws IllegalArgumentException if an ID is negative or a unit ID needs more than 20 bits
+     */
+    public static long pairKey(int categoryId, int fromUnit, int toUnit) {
+        if (categoryId < 0 || ((fromUnit | toUnit) >>> 20) != 0) {
+            throw new IllegalArgumentException("Unit ids out of range: " + categoryId + "/" + fromUnit + "/" + toUnit);
         }
+        return ((long) categoryId << 40) | ((long) fromUnit << 20) | toUnit;
+    }
+    
+    public static long pairKey(String category, String fromUnit, String toUnit) {
+        int categoryId = categoryId(category);
+        return pairKey(categoryId, unitId(categoryId, fromUnit), unitId(categoryId, toUnit));
+    }
+    
+    /** Whether {@code pairKey} packs a known category and two of its units. */
+    public static boolean isPairKey(long pairKey) {
+        int categoryId = categoryOfPair(pairKey);
+        return pairKey >= 0 && REGISTRY.isUnit(categoryId, fromUnitOfPair(pairKey))
+            && REGISTRY.isUnit(categoryId, toUnitOfPair(pairKey));
+    }
+    
+    public static int categoryOfPair(long pairKey) {
+        return (int) (pairKey >>> 40);
+    }
+    
+    public static int fromUnitOfPair(long pairKey) {
+        return (int) (pairKey >>> 20) & 0xFFFFF;
+    }
+    
+    public static int toUnitOfPair(long pairKey) {
+        return (int) pairKey & 0xFFFFF;
+    }
+    
+    /** Converts with a packed unit pair from {@link #pairKey}. */
+    public static double convert(long pairKey, double value) {
+        return convert(categoryOfPair(pairKey), fromUnitOfPair(pairKey), toUnitOfPair(pairKey), value);
     }
     
     
-    private static double convertArea(String fromUnit, String toUnit, double value) {
+    public static String bestUnit(String category, double valueInBase) {
+        int categoryId = categoryId(category);
+        return REGISTRY.getUnitName(categoryId, REGISTRY.bestUnit(categoryId, valueInBase));
+    }
+    
+    /**
+     * Picks the most readable unit for a value given in the category's base unit (see
+     * {@link UnitRegistry#bestUnit}). Allocation-free, for rendering many values.
+     */
+    public static int bestUnit(int categoryId, double valueInBase) {
+        return REGISTRY.bestUnit(categoryId, valueInBase);
+    }
+    
+    
+    public static int getUnitCount(int categoryId) {
+        return REGISTRY.getUnitCount(categoryId);
+    }
+    
+    
+    /**
+     * Values per unit pair in nested arrays indexed by category, source and target unit
+     * id, so lookups neither box nor hash a key. Reads take no lock: the values are
+     * published with final fields, so a racy read sees either null or a complete value,
+     * and a null sends the caller to {@link #computeIfAbsent}. Rows are created and
+     * widened under the table's lock, including for prefixed units synthesized later.
+     */
+    private static final class PairTable<T> {
+        private volatile Object[][][] table = new Object[0][][];
+        private int size;
         
-        double sqMeters = toSquareMeters(fromUnit, value);
+        @SuppressWarnings("unchecked")
+        T get(int categoryId, int fromUnit, int toUnit) {
+            Object[][][] categories = table;
+            if (categoryId < 0 || categoryId >= categories.length) {
+                return null;
+            }
+            Object[][] rows = categories[categoryId];
+            if (rows == null || fromUnit < 0 || fromUnit >= rows.length) {
+                return null;
+            }
+            Object[] row = rows[fromUnit];
+            return row == null || toUnit < 0 || toUnit >= row.length ? null : (T) row[toUnit];
+        }
         
+        /** Returns the value for the pair, storing the supplier's result if there is none. */
+        synchronized T computeIfAbsent(int categoryId, int fromUnit, int toUnit, Supplier<T> supplier) {
+            T value = get(categoryId, fromUnit, toUnit);
+            if (value != null) {
+                return value;
+            }
+            value = supplier.get();
+            
+            Object[][][] categories = table;
+            if (categoryId >= categories.length) {
+                categories = Arrays.copyOf(categories, categoryId + 1);
+            }
+            Object[][] rows = categories[categoryId];
+            if (rows == null || fromUnit >= rows.length) {
+                rows = rows == null ? new Object[fromUnit + 1][] : Arrays.copyOf(rows, fromUnit + 1);
+                categories[categoryId] = rows;
+            }
+            Object[] row = rows[fromUnit];
+            if (row == null || toUnit >= row.length) {
+                row = row == null ? new Object[toUnit + 1] : Arrays.copyOf(row, toUnit + 1);
+                rows[fromUnit] = row;
+            }
+            row[toUnit] = value;
+            size++;
+            table = categories;
+            return value;
+        }
         
-        return fromSquareMeters(toUnit, sqMeters);
+        synchronized int size() {
+            return size;
+        }
+        
+        @SuppressWarnings("unchecked")
+        synchronized void forEach(Consumer<T> action) {
+            for (Object[][] rows : table) {
+                if (rows == null) {
+                    continue;
+                }
+                for (Object[] row : rows) {
+                    if (row == null) {
+                        continue;
+                    }
+                    for (Object value : row) {
+                        if (value != null) {
+                            action.accept((T) value);
+                        }
+                    }
+                }
+            }
+        }
+        
+        synchronized void clear() {
+            table = new Object[0][][];
+            size = 0;
+        }
     }
     
-    private static double toSquareMeters(String unit, double value) {
-        switch (unit) {
-            case "Square Meter": return value;
-            case "Square Kilometer": return value * 1000000;
-            case "Acre": return value * 4046.86;
-            case "Hectare": return value * 10000;
-            default: throw new IllegalArgumentException("Unknown area unit: " + unit);
+    private static final class Specialization {
+        final ConversionPlan plan;
+        volatile DoubleUnaryOperator converter;
+        int uses;
+        
+        Specialization(ConversionPlan plan) {
+            this.plan = plan;
+        }
+        
+        // uses is updated without synchronization; an approximate count is good enough
+        DoubleUnaryOperator use(int threshold) {
+            DoubleUnaryOperator generated = converter;
+            if (generated != null) {
+                return generated;
+            }
+            if (uses++ < threshold) {
+                return plan;
+            }
+            
+            synchronized (this) {
+                if (converter == null) {
+                    converter = ConverterGenerator.generate(plan);
+                }
+                return converter;
+            }
         }
     }
     
-    private static double fromSquareMeters(String unit, double sqMeters) {
-        switch (unit) {
-            case "Square Meter": return sqMeters;
-            case "Square Kilometer": return sqMeters / 1000000;
-            case "Acre": return sqMeters / 4046.86;
-            case "Hectare": return sqMeters / 10000;
-            default: throw new IllegalArgumentException("Unknown area unit: " + unit);
+    private static final class BulkConversionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final ConversionPlan plan;
+        private final double[] in;
+        private final double[] out;
+        private final int off;
+        private final int len;
+        private final int splitSize;
+        
+        BulkConversionTask(ConversionPlan plan, double[] in, double[] out,
+                           int off, int len, int splitSize) {
+            this.plan = plan;
+            this.in = in;
+            this.out = out;
+            this.off = off;
+            this.len = len;
+            this.splitSize = splitSize;
+        }
+        
+        @Override
+        protected void compute() {
+            if (len <= splitSize) {
+                plan.applyTo(in, out, off, len);
+                return;
+            }
+            
+            
+            int half = len >>> 1;
+            if (half >= 8) {
+                half &= ~7;
+            }
+            invokeAll(
+                new BulkConversionTask(plan, in, out, off, half, splitSize),
+                new BulkConversionTask(plan, in, out, off + half, len - half, splitSize)
+            );
         }
     }
-}
+}
\ No newline at end of file
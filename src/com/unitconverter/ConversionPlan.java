@@ -0,0 +1,171 @@
+package com.unitconverter;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A resolved (category, from, to) conversion folded into a single {@code scale * x + offset}.
+ * Obtain instances through {@link ConversionLogic#plan}; they are immutable and cached.
+ * Results can differ from {@link ConversionLogic#convert} in the last bit because the
+ * to-base and from-base steps are combined into one multiply-add. A zero offset is never
+ * added, so -0.0 stays -0.0; every method here follows that rule and gives the same bits.
+ * Plans compiled from unit expressions report -1 for their category and unit ids.
+ */
+public final class ConversionPlan implements DoubleUnaryOperator {
+    private final int categoryId;
+    private final int fromUnit;
+    private final int toUnit;
+    private final double scale;
+    private final double offset;
+    
+    
+    ConversionPlan(int categoryId, int fromUnit, int toUnit, double scale, double offset) {
+        this.categoryId = categoryId;
+        this.fromUnit = fromUnit;
+        this.toUnit = toUnit;
+        this.scale = scale;
+        this.offset = offset;
+    }
+    
+    
+    @Override
+    public double applyAsDouble(double value) {
+        return offset == 0 ? scale * value : scale * value + offset;
+    }
+    
+    
+    /**
+     * Converts {@code in[off..off+len)} into the same range of {@code out}; the arrays may be
+     * the same. The loops are kept branch-free so the JIT can vectorize them.
+     */
+    public void applyTo(double[] in, double[] out, int off, int len) {
+        Objects.checkFromIndexSize(off, len, in.length);
+        Objects.checkFromIndexSize(off, len, out.length);
+        
+        int end = off + len;
+        double a = scale;
+        double b = offset;
+        if (b == 0) {
+            for (int i = off; i < end; i++) {
+                out[i] = a * in[i];
+            }
+        } else {
+            for (int i = off; i < end; i++) {
+                out[i] = a * in[i] + b;
+            }
+        }
+    }
+    
+    
+    /**
+     * Converts the remaining values of {@code in} into {@code out} and advances both
+     * positions; the buffers may be the same. Heap buffers go through the array loop,
+     * direct and mapped ones are converted where they are, without a heap copy.
+     *
+     * @throws BufferOverflowException if {@code out} has fewer remaining slots than {@code in}
+     */
+    public void applyTo(DoubleBuffer in, DoubleBuffer out) {
+        int len = in.remaining();
+        if (out.remaining() < len) {
+            throw new BufferOverflowException();
+        }
+        int from = in.position();
+        int to = out.position();
+        
+        if (in.hasArray() && out.hasArray() && from + in.arrayOffset() == to + out.arrayOffset()) {
+            applyTo(in.array(), out.array(), from + in.arrayOffset(), len);
+        } else if (offset == 0) {
+            double a = scale;
+            for (int i = 0; i < len; i++) {
+                out.put(to + i, a * in.get(from + i));
+            }
+        } else {
+            double a = scale;
+            double b = offset;
+            for (int i = 0; i < len; i++) {
+                out.put(to + i, a * in.get(from + i) + b);
+            }
+        }
+        in.position(from + len);
+        out.position(to + len);
+    }
+    
+    /**
+     * Converts {@code count} doubles laid out {@code stride} bytes apart, starting at byte
+     * {@code inOffset} of {@code in}, into the same layout at {@code outOffset} of
+     * {@code out}. The buffers may be the same, and bytes between the values are left
+     * alone, so one field of a fixed-size record can be converted in place. Values are
+     * read and written in each buffer's {@link ByteBuffer#order() byte order}; positions
+     * and limits are not changed.
+     *
+     * @throws IllegalArgumentException if {@code stride} is less than 8 or {@code count} is negative
+     * @throws IndexOutOfBoundsException if a value lies outside a buffer's limit
+     */
+    public void applyTo(ByteBuffer in, int inOffset, ByteBuffer out, int outOffset, int count, int stride) {
+        if (stride < Double.BYTES || count < 0) {
+            throw new IllegalArgumentException("Invalid layout: " + count + " values, stride " + stride);
+        }
+        if (count == 0) {
+            return;
+        }
+        long span = (long) (count - 1) * stride + Double.BYTES;
+        Objects.checkFromIndexSize(inOffset, span, in.limit());
+        Objects.checkFromIndexSize(outOffset, span, out.limit());
+        
+        double a = scale;
+        double b = offset;
+        if (b == 0) {
+            for (int i = 0; i < count; i++) {
+                out.putDouble(outOffset, a * in.getDouble(inOffset));
+                inOffset += stride;
+                outOffset += stride;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                out.putDouble(outOffset, a * in.getDouble(inOffset) + b);
+                inOffset += stride;
+                outOffset += stride;
+            }
+        }
+    }
+    
+    
+    public int getCategoryId() {
+        return categoryId;
+    }
+    
+    public int getFromUnit() {
+        return fromUnit;
+    }
+    
+    public int getToUnit() {
+        return toUnit;
+    }
+    
+    public double getScale() {
+        return scale;
+    }
+    
+    public double getOffset() {
+        return offset;
+    }
+    
+    
+    public boolean isLinear() {
+        return offset == 0;
+    }
+    
+    
+    public boolean isIdentity() {
+        return scale == 1 && offset == 0;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("ConversionPlan{category=%d, from=%d, to=%d, x * %s + %s}",
+            categoryId, fromUnit, toUnit, scale, offset);
+    }
+}
@@ -1,10 +1,20 @@
 package com.unitconverter;
 
+import com.unitconverter.threads.LiveConversion;
+import com.unitconverter.utils.NumberFormatter;
+import com.unitconverter.utils.NumberParser;
+import com.unitconverter.utils.NumberSymbols;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.HashMap;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.DefaultTableModel;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 
 public class ConverterApp extends JFrame {
@@ -16,10 +26,12 @@ public class ConverterApp extends JFrame {
     private JButton convertButton;
     private JButton clearButton;
     private JButton historyButton;
+    private JButton allUnitsButton;
     
     
     private Map<String, String[]> unitCategories;
     private DatabaseManager dbManager;
+    private LiveConversion<String> liveConversion;
     
     public ConverterApp() {
         initializeUnitCategories();
@@ -29,37 +41,14 @@ public class ConverterApp extends JFrame {
     }
     
     private void initializeUnitCategories() {
-        unitCategories = new HashMap<>();
-        
-        
-        unitCategories.put("Length", new String[]{"Meter", "Kilometer", "Centimeter", "Millimeter", "Mile", "Yard", "Foot", "Inch"});
-        
-        
-        unitCategories.put("Weight", new String[]{"Kilogram", "Gram", "Milligram", "Pound", "Ounce", "Ton"});
-        
-        
-        unitCategories.put("Temperature", new String[]{"Celsius", "Fahrenheit", "Kelvin"});
-        
-        
-        unitCategories.put("Volume", new String[]{"Liter", "Milliliter", "Gallon", "Cubic Meter"});
-        
-        
-        unitCategories.put("Area", new String[]{"Square Meter", "Square Kilometer", "Acre", "Hectare"});
-
-        
+        unitCategories = new LinkedHashMap<>();
         
+        UnitRegistry registry = UnitRegistry.getDefault();
+        for (int c = 0; c < registry.getCategoryCount(); c++) {
+            unitCategories.put(registry.getCategoryName(c), registry.getUnitNames(c));
+        }
     }
     
-    
-    
-    
-    
-    
-    
-    
-    
-    
-    
     private void initializeDatabase() {
         try {
             dbManager = new DatabaseManager();
@@ -149,10 +138,12 @@ public class ConverterApp extends JFrame {
         convertButton = new JButton("Convert");
         clearButton = new JButton("Clear");
         historyButton = new JButton("History");
+        allUnitsButton = new JButton("All Units");
         
         panel.add(convertButton);
         panel.add(clearButton);
         panel.add(historyButton);
+        panel.add(allUnitsButton);
         
         return panel;
     }
@@ -162,6 +153,7 @@ public class ConverterApp extends JFrame {
         categoryComboBox.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
                 updateUnitComboBoxes();
+                liveConversion.restart();
             }
         });
         
@@ -188,11 +180,38 @@ public class ConverterApp extends JFrame {
         });
         
         
+        allUnitsButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                showAllUnits();
+            }
+        });
+        
+        
         inputField.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
                 performConversion();
             }
         });
+        
+        
+        liveConversion = new LiveConversion<>(LiveConversion.DEFAULT_DELAY, this::liveConversionTask,
+            resultField::setText, e -> resultField.setText(""));
+        inputField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) {
+                liveConversion.restart();
+            }
+            
+            public void removeUpdate(DocumentEvent e) {
+                liveConversion.restart();
+            }
+            
+            public void changedUpdate(DocumentEvent e) {
+                liveConversion.restart();
+            }
+        });
+        ActionListener unitChanged = e -> liveConversion.restart();
+        fromUnitComboBox.addActionListener(unitChanged);
+        toUnitComboBox.addActionListener(unitChanged);
     }
     
     private void updateUnitComboBoxes() {
@@ -209,17 +228,31 @@ public class ConverterApp extends JFrame {
     }
     
     private void performConversion() {
+        liveConversion.cancel();
         try {
             String category = (String) categoryComboBox.getSelectedItem();
             String fromUnit = (String) fromUnitComboBox.getSelectedItem();
             String toUnit = (String) toUnitComboBox.getSelectedItem();
-            double inputValue = Double.parseDouble(inputField.getText());
-            
-            
-            double result = ConversionLogic.convert(category, fromUnit, toUnit, inputValue);
+            double[] input = new double[1];
+            if (ConverterUtils.parseNumber(inputField.getText(), input) != NumberParser.OK) {
+                showInvalidNumber();
+                return;
+            }
+            double inputValue = input[0];
             
             
-            resultField.setText(String.format("%.6f", result));
+            double result;
+            BigDecimal exactInput = ConversionLogic.isHighPrecision()
+                ? ConverterUtils.toExactNumber(inputField.getText(), inputValue) : null;
+            if (exactInput != null) {
+                BigDecimal exact = ConversionLogic.convertExact(category, fromUnit, toUnit,
+                    exactInput, 6, RoundingMode.HALF_UP);
+                result = exact.doubleValue();
+                resultField.setText(exact.toPlainString());
+            } else {
+                result = ConversionLogic.convert(category, fromUnit, toUnit, inputValue);
+                resultField.setText(NumberFormatter.formatFixed(result, 6, NumberSymbols.getDefault()));
+            }
             
             
             if (dbManager != null) {
@@ -227,9 +260,79 @@ public class ConverterApp extends JFrame {
             }
             
         } catch (NumberFormatException e) {
+            showInvalidNumber();
+        } catch (Exception e) {
             JOptionPane.showMessageDialog(this, 
-                "Please enter a valid number!", 
-                "Input Error", JOptionPane.ERROR_MESSAGE);
+                "Conversion error: " + e.getMessage(), 
+                "Conversion Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    /**
+     * Captures the current input for a live conversion. Incomplete input such as "1e" shows
+     * an empty result rather than an error, and nothing is saved to the history.
+     */
+    private Callable<String> liveConversionTask() {
+        String category = (String) categoryComboBox.getSelectedItem();
+        String fromUnit = (String) fromUnitComboBox.getSelectedItem();
+        String toUnit = (String) toUnitComboBox.getSelectedItem();
+        String text = inputField.getText();
+        return () -> {
+            double[] input = new double[1];
+            if (ConverterUtils.parseNumber(text, input) != NumberParser.OK) {
+                return "";
+            }
+            BigDecimal exactInput = ConversionLogic.isHighPrecision()
+                ? ConverterUtils.toExactNumber(text, input[0]) : null;
+            if (exactInput != null) {
+                return ConversionLogic.convertExact(category, fromUnit, toUnit,
+                    exactInput, 6, RoundingMode.HALF_UP).toPlainString();
+            }
+            return NumberFormatter.formatFixed(ConversionLogic.convert(category, fromUnit, toUnit, input[0]), 6,
+                NumberSymbols.getDefault());
+        };
+    }
+    
+    private void showInvalidNumber() {
+        JOptionPane.showMessageDialog(this, 
+            "Please enter a valid number!", 
+            "Input Error", JOptionPane.ERROR_MESSAGE);
+    }
+    
+    private void showAllUnits() {
+        try {
+            String category = (String) categoryComboBox.getSelectedItem();
+            String fromUnit = (String) fromUnitComboBox.getSelectedItem();
+            double[] input = new double[1];
+            if (ConverterUtils.parseNumber(inputField.getText(), input) != NumberParser.OK) {
+                showInvalidNumber();
+                return;
+            }
+            double inputValue = input[0];
+            
+            String[] units = unitCategories.get(category);
+            double[] results = ConversionLogic.convertToAll(category, fromUnit, inputValue);
+            
+            DefaultTableModel model = new DefaultTableModel(new Object[]{"Unit", "Value"}, 0) {
+                @Override
+                public boolean isCellEditable(int row, int column) {
+                    return false;
+                }
+            };
+            for (int i = 0; i < units.length; i++) {
+                model.addRow(new Object[]{units[i], ConverterUtils.formatResult(results[i])});
+            }
+            
+            JTable table = new JTable(model);
+            table.setFillsViewportHeight(true);
+            table.setRowHeight(25);
+            
+            JDialog dialog = new JDialog(this, inputField.getText() + " " + fromUnit + " in all units", true);
+            dialog.add(new JScrollPane(table));
+            dialog.setSize(350, 300);
+            dialog.setLocationRelativeTo(this);
+            dialog.setVisible(true);
+            
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, 
                 "Conversion error: " + e.getMessage(), 
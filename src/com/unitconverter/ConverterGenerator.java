@@ -0,0 +1,143 @@
+package com.unitconverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Generates a {@link DoubleUnaryOperator} class per conversion plan with the scale and
+ * offset stored as class-file constants, so {@code applyAsDouble} compiles down to a
+ * multiply-add of two literals. Classes are defined as hidden classes that are not tied
+ * to the class loader, so they are unloaded once nothing references the instance.
+ */
+final class ConverterGenerator {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final String CLASS_NAME = "com/unitconverter/GeneratedConverter";
+    
+    // Constant pool indices, see classFile()
+    private static final int THIS_CLASS = 2;
+    private static final int SUPER_CLASS = 4;
+    private static final int INTERFACE = 6;
+    private static final int INIT_NAME = 7;
+    private static final int INIT_TYPE = 8;
+    private static final int SUPER_INIT = 10;
+    private static final int APPLY_NAME = 11;
+    private static final int APPLY_TYPE = 12;
+    private static final int CODE = 13;
+    private static final int SCALE = 14;
+    private static final int OFFSET = 16;
+    private static final int POOL_SIZE = 18;
+    
+    private ConverterGenerator() {}
+    
+    
+    /**
+     * Returns a generated converter equivalent to {@code plan}, or the plan itself if the
+     * runtime cannot define hidden classes.
+     */
+    static DoubleUnaryOperator generate(ConversionPlan plan) {
+        try {
+            byte[] bytes = classFile(plan.getScale(), plan.getOffset());
+            Class<?> type = LOOKUP.defineHiddenClass(bytes, true).lookupClass();
+            return (DoubleUnaryOperator) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | IOException e) {
+            return plan;
+        }
+    }
+    
+    /**
+     * Writes the class file for
+     * {@code final class GeneratedConverter implements DoubleUnaryOperator} whose
+     * {@code applyAsDouble(x)} returns {@code scale * x + offset}, or {@code scale * x}
+     * when the offset is zero, matching {@link ConversionPlan#applyAsDouble} bit for bit.
+     */
+    private static byte[] classFile(double scale, double offset) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(52);
+        
+        out.writeShort(POOL_SIZE);
+        utf8(out, CLASS_NAME);
+        classRef(out, THIS_CLASS - 1);
+        utf8(out, "java/lang/Object");
+        classRef(out, SUPER_CLASS - 1);
+        utf8(out, "java/util/function/DoubleUnaryOperator");
+        classRef(out, INTERFACE - 1);
+        utf8(out, "<init>");
+        utf8(out, "()V");
+        out.writeByte(12);
+        out.writeShort(INIT_NAME);
+        out.writeShort(INIT_TYPE);
+        out.writeByte(10);
+        out.writeShort(SUPER_CLASS);
+        out.writeShort(SUPER_INIT - 1);
+        utf8(out, "applyAsDouble");
+        utf8(out, "(D)D");
+        utf8(out, "Code");
+        out.writeByte(6);
+        out.writeLong(Double.doubleToRawLongBits(scale));
+        out.writeByte(6);
+        out.writeLong(Double.doubleToRawLongBits(offset));
+        
+        out.writeShort(0x0031);
+        out.writeShort(THIS_CLASS);
+        out.writeShort(SUPER_CLASS);
+        out.writeShort(1);
+        out.writeShort(INTERFACE);
+        out.writeShort(0);
+        
+        out.writeShort(2);
+        method(out, INIT_NAME, INIT_TYPE, 1, 1, new byte[] {
+            0x2a,                                   // aload_0
+            (byte) 0xb7, 0, SUPER_INIT,             // invokespecial Object.<init>
+            (byte) 0xb1                             // return
+        });
+        method(out, APPLY_NAME, APPLY_TYPE, 4, 3, offset == 0 ? new byte[] {
+            0x14, 0, SCALE,                         // ldc2_w scale
+            0x27,                                   // dload_1
+            0x6b,                                   // dmul
+            (byte) 0xaf                             // dreturn
+        } : new byte[] {
+            0x14, 0, SCALE,                         // ldc2_w scale
+            0x27,                                   // dload_1
+            0x6b,                                   // dmul
+            0x14, 0, OFFSET,                        // ldc2_w offset
+            0x63,                                   // dadd
+            (byte) 0xaf                             // dreturn
+        });
+        
+        out.writeShort(0);
+        out.flush();
+        return buffer.toByteArray();
+    }
+    
+    private static void method(DataOutputStream out, int name, int type, int maxStack, int maxLocals,
+                               byte[] code) throws IOException {
+        out.writeShort(0x0001);
+        out.writeShort(name);
+        out.writeShort(type);
+        out.writeShort(1);
+        out.writeShort(CODE);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+    
+    private static void utf8(DataOutputStream out, String value) throws IOException {
+        out.writeByte(1);
+        out.writeUTF(value);
+    }
+    
+    private static void classRef(DataOutputStream out, int nameIndex) throws IOException {
+        out.writeByte(7);
+        out.writeShort(nameIndex);
+    }
+}
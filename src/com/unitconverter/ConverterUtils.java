@@ -1,5 +1,9 @@
 package com.unitconverter;
 
+import com.unitconverter.utils.NumberFormatter;
+import com.unitconverter.utils.NumberParser;
+import com.unitconverter.utils.NumberSymbols;
+import java.math.BigDecimal;
 import javax.swing.JTextField;
 import javax.swing.JComboBox;
 
@@ -11,16 +15,44 @@ public class ConverterUtils {
     
     
     public static boolean isValidNumber(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            return false;
+        return NumberParser.isValid(text, NumberSymbols.getDefault()) || NumberParser.isValid(text);
+    }
+    
+    /**
+     * Parses user input in the default locale's notation ("1.234,56", "12,34,567.8"),
+     * falling back to plain syntax so "1.5" is accepted everywhere.
+     *
+     * @return a {@link NumberParser} status
+     */
+    public static int parseNumber(String text, double[] result) {
+        int status = NumberParser.parse(text, NumberSymbols.getDefault(), result);
+        return status == NumberParser.INVALID ? NumberParser.parse(text, result) : status;
+    }
+    
+    /** Returns input accepted by {@link #parseNumber} in plain syntax, or null. */
+    public static String toPlainNumber(String text) {
+        String plain = NumberParser.toPlain(text, NumberSymbols.getDefault());
+        return plain != null ? plain : NumberParser.toPlain(text, NumberSymbols.PLAIN);
+    }
+    
+    /**
+     * Returns input that {@link #parseNumber} read as {@code value} as a BigDecimal for
+     * exact conversion, or null for NaN and infinities, which have none. A {@code f} or
+     * {@code d} suffix is dropped, and a hexadecimal literal gives the exact value of its double.
+     */
+    public static BigDecimal toExactNumber(String text, double value) {
+        String plain = Double.isFinite(value) ? toPlainNumber(text) : null;
+        if (plain == null) {
+            return null;
+        }
+        if (plain.indexOf('x') >= 0 || plain.indexOf('X') >= 0) {
+            return new BigDecimal(value);
         }
-        
-        try {
-            Double.parseDouble(text.trim());
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+        char last = plain.charAt(plain.length() - 1);
+        if (last == 'f' || last == 'F' || last == 'd' || last == 'D') {
+            plain = plain.substring(0, plain.length() - 1);
         }
+        return new BigDecimal(plain);
     }
     
     
@@ -30,25 +62,20 @@ public class ConverterUtils {
     
     
     public static String formatResult(double value) {
-        if (value == 0) {
-            return "0";
-        }
-        
-        
-        if (Math.abs(value) < 0.000001 || Math.abs(value) > 1000000) {
-            return String.format("%.6e", value);
-        }
-        
-        
-        if (Math.abs(value) < 0.1) {
-            return String.format("%.8f", value).replaceAll("0*$", "").replaceAll("\\.$", "");
-        } else if (Math.abs(value) < 1) {
-            return String.format("%.6f", value).replaceAll("0*$", "").replaceAll("\\.$", "");
-        } else if (Math.abs(value) < 100) {
-            return String.format("%.4f", value).replaceAll("0*$", "").replaceAll("\\.$", "");
-        } else {
-            return String.format("%.2f", value);
-        }
+        return NumberFormatter.formatResult(value);
+    }
+    
+    
+    /**
+     * Formats a value given in the category's base unit in its most readable unit,
+     * e.g. 0.034 Length becomes "3.4 cm" and 5000 becomes "5 km".
+     */
+    public static String formatInBestUnit(String category, double valueInBase) {
+        UnitRegistry registry = UnitRegistry.getDefault();
+        int categoryId = ConversionLogic.categoryId(category);
+        int unit = registry.bestUnit(categoryId, valueInBase);
+        return formatResult(valueInBase / registry.getFactor(categoryId, unit))
+            + " " + registry.getUnitSymbol(categoryId, unit);
     }
     
     
@@ -67,25 +94,20 @@ public class ConverterUtils {
     }
     
     
-    public static boolean areFieldsValid(JTextField inputField, 
-                                       JComboBox<?> fromUnit, 
+    public static boolean areFieldsValid(JTextField inputField,
+                                       JComboBox<?> fromUnit,
                                        JComboBox<?> toUnit) {
         return isValidNumber(inputField.getText()) &&
                fromUnit.getSelectedItem() != null &&
                toUnit.getSelectedItem() != null &&
-               areUnitsDifferent(fromUnit.getSelectedItem().toString(), 
+               areUnitsDifferent(fromUnit.getSelectedItem().toString(),
                                toUnit.getSelectedItem().toString());
     }
     
     
     public static String getCategoryDescription(String category) {
-        switch (category) {
-            case "Length": return "Distance Measurements";
-            case "Weight": return "Mass Measurements";
-            case "Temperature": return "Temperature Scales";
-            case "Volume": return "Capacity Measurements";
-            case "Area": return "Surface Area Measurements";
-            default: return "Unit Conversions";
-        }
+        UnitRegistry registry = UnitRegistry.getDefault();
+        int categoryId = registry.categoryId(category);
+        return categoryId < 0 ? "Unit Conversions" : registry.getCategoryDescription(categoryId);
     }
 }
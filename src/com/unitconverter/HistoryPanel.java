@@ -1,5 +1,7 @@
 package com.unitconverter;
 
+import com.unitconverter.utils.NumberFormatter;
+import com.unitconverter.utils.NumberSymbols;
 import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
 import java.awt.*;
@@ -215,8 +217,8 @@ public class HistoryPanel extends JPanel {
                 case 1: return record.getCategory();
                 case 2: return record.getFromUnit();
                 case 3: return record.getToUnit();
-                case 4: return String.format("%.6f", record.getInputValue());
-                case 5: return String.format("%.6f", record.getResultValue());
+                case 4: return NumberFormatter.formatFixed(record.getInputValue(), 6, NumberSymbols.getDefault());
+                case 5: return NumberFormatter.formatFixed(record.getResultValue(), 6, NumberSymbols.getDefault());
                 case 6: return "Remove";
                 default: return null;
             }
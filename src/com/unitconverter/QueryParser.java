@@ -0,0 +1,343 @@
+package com.unitconverter;
+
+import com.unitconverter.exceptions.InvalidUnitException;
+import com.unitconverter.models.ConversionRequest;
+import com.unitconverter.utils.NumberParser;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parses free-text queries such as "12.5 kg in lb", "5 ft 3 in to cm" or "98.6F -> C"
+ * into a {@link ConversionRequest}. Several value/unit terms are summed in the unit of
+ * the first term, except in categories with offsets such as Temperature, where a sum of
+ * readings has no meaning and is rejected. Unit spellings are matched against a character trie built once from
+ * every name, symbol and alias in the {@link UnitRegistry}, then through
+ * {@link UnitRegistry#lookup} (which also understands SI-prefixed units), and only then
+ * case-insensitively. Names and aliases always fold. A symbol folds only if it is longer
+ * than one letter and no other unit, prefixed or not, shares its folded spelling, so
+ * "KM" is a kilometer, while "k" is not a kelvin and "MG" matches nothing.
+ */
+public final class QueryParser {
+    private static final String[] CONNECTORS = {"->", "=>", "\u2192", "=", "into", "to", "in", "as"};
+    
+    private final UnitRegistry registry;
+    private final Node exact = new Node();
+    private final Node folded = new Node();
+    
+    
+    public QueryParser(UnitRegistry registry) {
+        this.registry = registry;
+        
+        // folded spelling -> handle, or -1 when units disagree on it
+        Map<String, Integer> owners = new HashMap<>();
+        for (int c = 0; c < registry.getCategoryCount(); c++) {
+            for (int u = 0; u < registry.getUnitCount(c); u++) {
+                int handle = UnitRegistry.handle(c, u);
+                claim(owners, registry.getUnitName(c, u), handle);
+                claim(owners, registry.getUnitSymbol(c, u), handle);
+                for (String alias : registry.getUnitAliases(c, u)) {
+                    claim(owners, alias, handle);
+                }
+            }
+        }
+        
+        for (int c = 0; c < registry.getCategoryCount(); c++) {
+            for (int u = 0; u < registry.getUnitCount(c); u++) {
+                int handle = UnitRegistry.handle(c, u);
+                String symbol = registry.getUnitSymbol(c, u);
+                insert(registry.getUnitName(c, u), handle, true);
+                insert(symbol, handle, symbol.length() > 1 && owners.get(fold(symbol)) == handle
+                    && !registry.hasPrefixedCaseVariant(symbol, handle));
+                for (String alias : registry.getUnitAliases(c, u)) {
+                    insert(alias, handle, true);
+                }
+            }
+        }
+    }
+    
+    
+    public static QueryParser getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+    
+    
+    public ConversionRequest parse(String query) throws InvalidUnitException {
+        if (query == null) {
+            throw InvalidUnitException.createInvalidQuery("null", 0, "query is empty");
+        }
+        
+        Cursor cursor = new Cursor(query);
+        cursor.skipSpaces();
+        if (cursor.atEnd()) {
+            throw cursor.error("query is empty");
+        }
+        
+        double total = 0;
+        int category = -1;
+        int firstUnit = -1;
+        
+        do {
+            int numberStart = cursor.pos;
+            double value = cursor.number();
+            if (Double.isInfinite(value)) {
+                cursor.pos = numberStart;
+                throw cursor.error("value must be finite");
+            }
+            cursor.skipSpaces();
+            
+            int unitStart = cursor.pos;
+            int handle = matchUnit(cursor);
+            if (handle < 0) {
+                throw cursor.error("expected a unit");
+            }
+            
+            int unitCategory = UnitRegistry.categoryOf(handle);
+            int unit = UnitRegistry.unitOf(handle);
+            if (category < 0) {
+                category = unitCategory;
+                firstUnit = unit;
+                total = value;
+            } else if (unitCategory != category) {
+                cursor.pos = unitStart;
+                throw cursor.error("cannot add " + registry.getCategoryName(unitCategory)
+                    + " to " + registry.getCategoryName(category));
+            } else if (registry.factors(category) == null) {
+                cursor.pos = numberStart;
+                throw cursor.error("cannot add " + registry.getCategoryName(category) + " values");
+            } else {
+                total += ConversionLogic.convert(category, unit, firstUnit, value);
+            }
+            cursor.skipSpaces();
+        } while (cursor.startsNumber());
+        
+        if (!cursor.connector()) {
+            throw cursor.error("expected 'to', 'in' or '->' followed by a target unit");
+        }
+        cursor.skipSpaces();
+        
+        int targetStart = cursor.pos;
+        int target = matchUnit(cursor);
+        if (target < 0) {
+            throw cursor.error("expected a target unit");
+        }
+        if (UnitRegistry.categoryOf(target) != category) {
+            cursor.pos = targetStart;
+            throw cursor.error("cannot convert " + registry.getCategoryName(category)
+                + " to " + registry.getCategoryName(UnitRegistry.categoryOf(target)));
+        }
+        
+        cursor.skipSpaces();
+        if (!cursor.atEnd()) {
+            throw cursor.error("unexpected '" + query.charAt(cursor.pos) + "'");
+        }
+        
+        try {
+            return new ConversionRequest(total,
+                registry.getUnitName(category, firstUnit),
+                registry.getUnitName(category, UnitRegistry.unitOf(target)),
+                registry.getCategoryName(category));
+        } catch (IllegalArgumentException e) {
+            throw InvalidUnitException.createInvalidQuery(query, 0, e.getMessage());
+        }
+    }
+    
+    
+    private int matchUnit(Cursor cursor) {
+        int handle = match(exact, cursor, false);
+        if (handle < 0) {
+            handle = lookup(cursor);
+        }
+        if (handle < 0) {
+            handle = match(folded, cursor, true);
+        }
+        return handle;
+    }
+    
+    private int lookup(Cursor cursor) {
+        String text = cursor.text;
+        int end = cursor.pos;
+        while (end < text.length() && !Character.isWhitespace(text.charAt(end))
+                && !Character.isDigit(text.charAt(end))) {
+            end++;
+        }
+        if (end == cursor.pos) {
+            return -1;
+        }
+        
+        int handle = registry.lookup(text.substring(cursor.pos, end));
+        if (handle >= 0) {
+            cursor.pos = end;
+        }
+        return handle;
+    }
+    
+    /**
+     * Walks the trie from the cursor and keeps the longest spelling that ends on a
+     * word boundary, so "min" never matches as "mi" and "inches" never as "in".
+     */
+    private static int match(Node root, Cursor cursor, boolean fold) {
+        String text = cursor.text;
+        Node node = root;
+        int best = -1;
+        int bestEnd = -1;
+        
+        for (int i = cursor.pos; i < text.length() && node != null; i++) {
+            char c = text.charAt(i);
+            node = node.child(fold ? Character.toLowerCase(c) : c);
+            if (node != null && node.handle >= 0 && isBoundary(text, i + 1)) {
+                best = node.handle;
+                bestEnd = i + 1;
+            }
+        }
+        
+        if (best >= 0) {
+            cursor.pos = bestEnd;
+        }
+        return best;
+    }
+    
+    private static boolean isBoundary(String text, int index) {
+        return index == text.length()
+            || !Character.isLetter(text.charAt(index))
+            || !Character.isLetter(text.charAt(index - 1));
+    }
+    
+    private static void claim(Map<String, Integer> owners, String spelling, int handle) {
+        owners.merge(fold(spelling), handle, (owner, other) -> owner.equals(other) ? owner : -1);
+    }
+    
+    private static String fold(String spelling) {
+        return spelling.toLowerCase(Locale.ROOT);
+    }
+    
+    private void insert(String spelling, int handle, boolean foldable) {
+        exact.insert(spelling, handle, false);
+        if (foldable) {
+            folded.insert(spelling, handle, true);
+        }
+    }
+    
+    
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int handle = -1;
+        
+        Node child(char c) {
+            char[] l = labels;
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+        
+        void insert(String spelling, int unitHandle, boolean fold) {
+            Node node = this;
+            for (int i = 0; i < spelling.length(); i++) {
+                char c = fold ? Character.toLowerCase(spelling.charAt(i)) : spelling.charAt(i);
+                Node next = node.child(c);
+                if (next == null) {
+                    next = new Node();
+                    node.labels = Arrays.copyOf(node.labels, node.labels.length + 1);
+                    node.children = Arrays.copyOf(node.children, node.children.length + 1);
+                    node.labels[node.labels.length - 1] = c;
+                    node.children[node.children.length - 1] = next;
+                }
+                node = next;
+            }
+            
+            
+            if (node.handle < 0) {
+                node.handle = unitHandle;
+            }
+        }
+    }
+    
+    
+    private static final class Cursor {
+        final String text;
+        int pos;
+        
+        Cursor(String text) {
+            this.text = text;
+        }
+        
+        boolean atEnd() {
+            return pos >= text.length();
+        }
+        
+        void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+        
+        boolean startsNumber() {
+            int i = pos;
+            if (i < text.length() && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                i++;
+            }
+            if (i < text.length() && text.charAt(i) == '.') {
+                i++;
+            }
+            return i < text.length() && Character.isDigit(text.charAt(i));
+        }
+        
+        double number() throws InvalidUnitException {
+            if (!startsNumber()) {
+                throw error("expected a number");
+            }
+            
+            int start = pos;
+            if (text.charAt(pos) == '-' || text.charAt(pos) == '+') {
+                pos++;
+            }
+            while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                pos++;
+            }
+            if (pos + 1 < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+                int exponent = pos + 1;
+                if (text.charAt(exponent) == '-' || text.charAt(exponent) == '+') {
+                    exponent++;
+                }
+                if (exponent < text.length() && Character.isDigit(text.charAt(exponent))) {
+                    pos = exponent;
+                    while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                        pos++;
+                    }
+                }
+            }
+            
+            double[] value = new double[1];
+            if (NumberParser.parse(text, start, pos, value, 0) != NumberParser.OK) {
+                pos = start;
+                throw error("malformed number");
+            }
+            return value[0];
+        }
+        
+        boolean connector() {
+            for (String connector : CONNECTORS) {
+                int end = pos + connector.length();
+                if (text.regionMatches(true, pos, connector, 0, connector.length())
+                        && (!Character.isLetter(connector.charAt(0)) || isBoundary(text, end))) {
+                    pos = end;
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        InvalidUnitException error(String reason) {
+            return InvalidUnitException.createInvalidQuery(text, pos, reason);
+        }
+    }
+    
+    private static final class DefaultHolder {
+        static final QueryParser INSTANCE = new QueryParser(UnitRegistry.getDefault());
+    }
+}
@@ -0,0 +1,369 @@
+package com.unitconverter;
+
+import com.unitconverter.exceptions.InvalidUnitException;
+import com.unitconverter.utils.NumberParser;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A unit expression such as {@code km/h}, {@code kg/m^3} or {@code ft*lbf} reduced to a
+ * dimension vector (exponents over L, M, T, &Theta;) and a factor to coherent SI units.
+ * Parsed expressions and compiled (from, to) plans are cached by their source strings,
+ * so a stream of values pays for parsing once per distinct expression.
+ */
+public final class UnitExpression {
+    private static final int MAX_CACHED = 10000;
+    private static final Map<String, UnitExpression> EXPRESSIONS = new ConcurrentHashMap<>();
+    private static final Map<String, Map<String, ConversionPlan>> PLANS = new ConcurrentHashMap<>();
+    
+    private final String expression;
+    private final double factor;
+    private final int[] dimension;
+    private final int unitHandle;
+    
+    private UnitExpression(String expression, double factor, int[] dimension, int unitHandle) {
+        this.expression = expression;
+        this.factor = factor;
+        this.dimension = dimension;
+        this.unitHandle = unitHandle;
+    }
+    
+    
+    public static UnitExpression parse(String expression) throws InvalidUnitException {
+        if (expression == null) {
+            throw InvalidUnitException.createInvalidExpression("null", 0, "expected a unit");
+        }
+        
+        UnitExpression cached = EXPRESSIONS.get(expression);
+        if (cached != null) {
+            return cached;
+        }
+        
+        UnitExpression parsed = new Parser(expression).parse();
+        if (EXPRESSIONS.size() < MAX_CACHED) {
+            UnitExpression existing = EXPRESSIONS.putIfAbsent(expression, parsed);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return parsed;
+    }
+    
+    /**
+     * Returns the cached plan converting values in {@code fromExpression} to
+     * {@code toExpression}, compiling it on first use.
+     */
+    public static ConversionPlan compile(String fromExpression, String toExpression) throws InvalidUnitException {
+        Map<String, ConversionPlan> targets = PLANS.get(fromExpression);
+        if (targets != null) {
+            ConversionPlan plan = targets.get(toExpression);
+            if (plan != null) {
+                return plan;
+            }
+        }
+        
+        ConversionPlan plan = parse(fromExpression).planTo(parse(toExpression));
+        if (PLANS.size() < MAX_CACHED) {
+            targets = PLANS.computeIfAbsent(fromExpression, k -> new ConcurrentHashMap<>());
+            if (targets.size() < MAX_CACHED) {
+                ConversionPlan existing = targets.putIfAbsent(toExpression, plan);
+                if (existing != null) {
+                    return existing;
+                }
+            }
+        }
+        return plan;
+    }
+    
+    /**
+     * Builds a plan to {@code target}. Two plain units of the same category use the
+     * category's own (possibly affine) plan; anything compound is a pure scale, so a
+     * temperature inside a compound expression counts as an interval.
+     */
+    public ConversionPlan planTo(UnitExpression target) throws InvalidUnitException {
+        if (!Arrays.equals(dimension, target.dimension)) {
+            throw InvalidUnitException.createDimensionMismatch(
+                expression, formatDimension(dimension), target.expression, formatDimension(target.dimension));
+        }
+        
+        if (unitHandle >= 0 && target.unitHandle >= 0
+                && UnitRegistry.categoryOf(unitHandle) == UnitRegistry.categoryOf(target.unitHandle)) {
+            return ConversionLogic.plan(UnitRegistry.categoryOf(unitHandle),
+                UnitRegistry.unitOf(unitHandle), UnitRegistry.unitOf(target.unitHandle));
+        }
+        return new ConversionPlan(-1, -1, -1, factor / target.factor, 0);
+    }
+    
+    
+    public String getExpression() {
+        return expression;
+    }
+    
+    
+    public double getFactor() {
+        return factor;
+    }
+    
+    public int[] getDimension() {
+        return dimension.clone();
+    }
+    
+    public String getDimensionString() {
+        return formatDimension(dimension);
+    }
+    
+    
+    public boolean isCompatible(UnitExpression other) {
+        return Arrays.equals(dimension, other.dimension);
+    }
+    
+    
+    public static String formatDimension(int[] dimension) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < dimension.length; i++) {
+            if (dimension[i] == 0) {
+                continue;
+            }
+            if (text.length() > 0) {
+                text.append('\u00B7');
+            }
+            text.append(UnitRegistry.DIMENSION_SYMBOLS[i]);
+            if (dimension[i] != 1) {
+                text.append('^').append(dimension[i]);
+            }
+        }
+        return text.length() == 0 ? "1" : text.toString();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("UnitExpression{'%s' = %s %s}", expression, factor, getDimensionString());
+    }
+    
+    
+    private static final class Parser {
+        private final String text;
+        private final UnitRegistry registry = UnitRegistry.getDefault();
+        private int pos;
+        
+        Parser(String text) {
+            this.text = text;
+        }
+        
+        UnitExpression parse() throws InvalidUnitException {
+            String trimmed = text.trim();
+            int handle = registry.lookup(trimmed);
+            if (handle >= 0) {
+                Term unit = unit(handle, 0);
+                return new UnitExpression(text, unit.factor, unit.dimension, handle);
+            }
+            
+            skipSpaces();
+            if (pos == text.length()) {
+                throw error("expected a unit");
+            }
+            
+            Term term = product();
+            if (pos < text.length()) {
+                throw error("unexpected '" + text.charAt(pos) + "'");
+            }
+            return new UnitExpression(text, term.factor, term.dimension, term.unitHandle);
+        }
+        
+        private Term product() throws InvalidUnitException {
+            Term result = power();
+            while (true) {
+                int start = pos;
+                skipSpaces();
+                if (pos == text.length()) {
+                    return result;
+                }
+                
+                char c = text.charAt(pos);
+                if (c == '/') {
+                    pos++;
+                    skipSpaces();
+                    result = result.times(power(), -1);
+                } else if (c == '*' || c == '\u00B7' || c == '\u22C5' || c == '\u00D7'
+                        || (c == '.' && !(pos + 1 < text.length() && Character.isDigit(text.charAt(pos + 1))))) {
+                    pos++;
+                    skipSpaces();
+                    result = result.times(power(), 1);
+                } else if (pos > start && startsAtom(c)) {
+                    result = result.times(power(), 1);
+                } else {
+                    pos = start;
+                    return result;
+                }
+            }
+        }
+        
+        private Term power() throws InvalidUnitException {
+            boolean named = pos < text.length() && isNameChar(text.charAt(pos));
+            Term base = atom();
+            if (pos == text.length()) {
+                return base;
+            }
+            
+            char c = text.charAt(pos);
+            if (c == '\u00B2' || c == '\u00B3') {
+                pos++;
+                return base.pow(c == '\u00B2' ? 2 : 3);
+            }
+            if (c == '^') {
+                pos++;
+                return base.pow(exponent());
+            }
+            if (named && (Character.isDigit(c) || c == '-')) {
+                return base.pow(exponent());
+            }
+            return base;
+        }
+        
+        private int exponent() throws InvalidUnitException {
+            int start = pos;
+            if (pos < text.length() && (text.charAt(pos) == '-' || text.charAt(pos) == '+')) {
+                pos++;
+            }
+            int digits = pos;
+            while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                pos++;
+            }
+            if (pos == digits || pos - digits > 2) {
+                pos = start;
+                throw error("expected an integer exponent");
+            }
+            return Integer.parseInt(text.substring(start, pos));
+        }
+        
+        private Term atom() throws InvalidUnitException {
+            if (pos == text.length()) {
+                throw error("expected a unit");
+            }
+            
+            char c = text.charAt(pos);
+            if (c == '(') {
+                pos++;
+                skipSpaces();
+                Term inner = product();
+                skipSpaces();
+                if (pos == text.length() || text.charAt(pos) != ')') {
+                    throw error("expected ')'");
+                }
+                pos++;
+                inner.unitHandle = -1;
+                return inner;
+            }
+            
+            if (Character.isDigit(c) || c == '.') {
+                return number();
+            }
+            
+            if (!isNameChar(c)) {
+                throw error("unexpected '" + c + "'");
+            }
+            
+            int start = pos;
+            while (pos < text.length() && (isNameChar(text.charAt(pos))
+                    || (text.charAt(pos) == '-' && pos + 1 < text.length() && Character.isLetter(text.charAt(pos + 1))))) {
+                pos++;
+            }
+            
+            String name = text.substring(start, pos);
+            int handle = registry.lookup(name);
+            if (handle < 0) {
+                pos = start;
+                throw error("unknown unit '" + name + "'");
+            }
+            return unit(handle, start);
+        }
+        
+        private Term number() throws InvalidUnitException {
+            int start = pos;
+            while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                pos++;
+            }
+            if (pos < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')
+                    && pos + 1 < text.length()
+                    && (Character.isDigit(text.charAt(pos + 1)) || text.charAt(pos + 1) == '-')) {
+                pos += 2;
+                while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                    pos++;
+                }
+            }
+            
+            double[] value = new double[1];
+            if (NumberParser.parse(text, start, pos, value, 0) != NumberParser.OK) {
+                pos = start;
+                throw error("bad number");
+            }
+            if (!(value[0] > 0) || Double.isInfinite(value[0])) {
+                pos = start;
+                throw error("numeric factor must be positive and finite");
+            }
+            return new Term(value[0], new int[UnitRegistry.DIMENSION_SYMBOLS.length], -1);
+        }
+        
+        private Term unit(int handle, int position) throws InvalidUnitException {
+            int category = UnitRegistry.categoryOf(handle);
+            int[] dimension = registry.getCategoryDimension(category);
+            if (dimension == null) {
+                pos = position;
+                throw error("units of " + registry.getCategoryName(category) + " cannot be combined");
+            }
+            
+            double unitFactor = registry.getFactor(category, UnitRegistry.unitOf(handle))
+                * registry.getCategoryScale(category);
+            return new Term(unitFactor, dimension, handle);
+        }
+        
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+        
+        private static boolean startsAtom(char c) {
+            return c == '(' || Character.isDigit(c) || isNameChar(c);
+        }
+        
+        private static boolean isNameChar(char c) {
+            return Character.isLetter(c) || c == '\u00B0' || c == '\u2032' || c == '\u2033' || c == '_';
+        }
+        
+        private InvalidUnitException error(String reason) {
+            return InvalidUnitException.createInvalidExpression(text, pos, reason);
+        }
+    }
+    
+    
+    private static final class Term {
+        final double factor;
+        final int[] dimension;
+        int unitHandle;
+        
+        Term(double factor, int[] dimension, int unitHandle) {
+            this.factor = factor;
+            this.dimension = dimension;
+            this.unitHandle = unitHandle;
+        }
+        
+        Term times(Term other, int sign) {
+            int[] combined = dimension.clone();
+            for (int i = 0; i < combined.length; i++) {
+                combined[i] += sign * other.dimension[i];
+            }
+            double product = sign > 0 ? factor * other.factor : factor / other.factor;
+            return new Term(product, combined, -1);
+        }
+        
+        Term pow(int exponent) {
+            int[] raised = dimension.clone();
+            for (int i = 0; i < raised.length; i++) {
+                raised[i] *= exponent;
+            }
+            return new Term(Math.pow(factor, exponent), raised, exponent == 1 ? unitHandle : -1);
+        }
+    }
+}
@@ -0,0 +1,1132 @@
+package com.unitconverter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Categories and units loaded from a definition file (see {@code units.def}).
+ * Every unit gets an interned integer handle; names, symbols and aliases resolve
+ * to it through an open-addressing hash table without allocating.
+ *
+ * <p>Units flagged {@code si} also accept SI prefixes (yocto..yotta, y..Y). A prefixed
+ * unit such as "micrometer" or "Mg" is synthesized on its first lookup and cached, so
+ * later lookups are plain hash hits.
+ *
+ * <p>A factor may also be given relative to another unit ({@code 220 Yard}), and
+ * {@code ~} lines state extra equivalences. The resulting graph is resolved to direct
+ * base factors once while loading, so conversions never walk it.
+ *
+ * <p>Units flagged {@code display} form the ladder that {@link #bestUnit} picks from.
+ */
+public final class UnitRegistry {
+    public static final String UNITS_PROPERTY = "unitconverter.units";
+    private static final String DEFAULT_RESOURCE = "units.def";
+    private static final String SI_FLAG = "si";
+    private static final String DISPLAY_FLAG = "display";
+    private static final double DISPLAY_SLACK = 1 - 1e-9;
+    private static final double CONSISTENCY_TOLERANCE = 1e-9;
+    
+    
+    static final String[] DIMENSION_SYMBOLS = {"L", "M", "T", "\u0398"};
+    
+    private static final int UNIT_BITS = 16;
+    private static final int UNIT_MASK = (1 << UNIT_BITS) - 1;
+    
+    
+    private static final String[] PREFIX_NAMES = {
+        "yotta", "zetta", "exa", "peta", "tera", "giga", "mega", "kilo", "hecto", "deca",
+        "deci", "centi", "milli", "micro", "nano", "pico", "femto", "atto", "zepto", "yocto"
+    };
+    private static final String[][] PREFIX_SYMBOLS = {
+        {"Y"}, {"Z"}, {"E"}, {"P"}, {"T"}, {"G"}, {"M"}, {"k"}, {"h"}, {"da"},
+        {"d"}, {"c"}, {"m"}, {"\u00B5", "\u03BC", "u"}, {"n"}, {"p"}, {"f"}, {"a"}, {"z"}, {"y"}
+    };
+    private static final int[] PREFIX_EXPONENTS = {
+        24, 21, 18, 15, 12, 9, 6, 3, 2, 1,
+        -1, -2, -3, -6, -9, -12, -15, -18, -21, -24
+    };
+    private static final double[] POWERS_OF_TEN = new double[25];
+    
+    static {
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = Double.parseDouble("1e" + i);
+        }
+    }
+    
+    private final String[] categoryNames;
+    private final String[] categoryDescriptions;
+    private final int[][] categoryDimensions;
+    private final double[] categoryScales;
+    private final int[] definedUnitCounts;
+    private final boolean[] affine;
+    private final boolean[][] prefixable;
+    private final double[][] displayThresholds;
+    private final int[][] displayUnits;
+    private final int[] neutralDisplayUnits;
+    private final Tables categoryIndex;
+    
+    
+    private volatile Tables tables;
+    
+    private UnitRegistry(List<CategoryDefinition> categories) {
+        int count = categories.size();
+        categoryNames = new String[count];
+        categoryDescriptions = new String[count];
+        categoryDimensions = new int[count][];
+        categoryScales = new double[count];
+        definedUnitCounts = new int[count];
+        affine = new boolean[count];
+        prefixable = new boolean[count][];
+        displayThresholds = new double[count][];
+        displayUnits = new int[count][];
+        neutralDisplayUnits = new int[count];
+        
+        Tables initial = new Tables(count);
+        int keyCount = 0;
+        for (int c = 0; c < count; c++) {
+            CategoryDefinition category = categories.get(c);
+            int units = category.units.size();
+            categoryNames[c] = category.name;
+            categoryDescriptions[c] = category.description;
+            categoryDimensions[c] = category.dimension;
+            categoryScales[c] = category.scale;
+            definedUnitCounts[c] = units;
+            prefixable[c] = new boolean[units];
+            initial.allocate(c, units);
+            
+            for (int u = 0; u < units; u++) {
+                UnitDefinition unit = category.units.get(u);
+                initial.set(c, u, unit.name, unit.symbol, unit.aliases,
+                    unit.numerator, unit.denominator, unit.offset,
+                    unit.exactNumerator, unit.exactDenominator, unit.exactOffset);
+                prefixable[c][u] = unit.prefixable;
+                affine[c] |= unit.offset != 0;
+                keyCount += 2 + unit.aliases.length;
+            }
+            if (affine[c]) {
+                initial.factors[c] = null;
+            }
+            buildDisplayLadder(c, category, initial);
+        }
+        
+        initial.resize(keyCount);
+        for (int c = 0; c < count; c++) {
+            for (int u = 0; u < definedUnitCounts[c]; u++) {
+                int handle = handle(c, u);
+                initial.intern(initial.names[c][u], handle, true);
+                initial.intern(initial.symbols[c][u], handle, true);
+                for (String alias : initial.aliases[c][u]) {
+                    initial.intern(alias, handle, true);
+                }
+            }
+        }
+        tables = initial;
+        
+        categoryIndex = new Tables(0);
+        categoryIndex.resize(count);
+        for (int c = 0; c < count; c++) {
+            categoryIndex.intern(categoryNames[c], c, true);
+        }
+    }
+    
+    
+    /**
+     * Sorts a category's display units by factor. Units flagged {@code display} are used if
+     * there are any, otherwise every unit; categories with offsets only get their base unit.
+     */
+    private void buildDisplayLadder(int c, CategoryDefinition category, Tables initial) {
+        int units = category.units.size();
+        int[] candidates = new int[units];
+        int count = 0;
+        for (int u = 0; u < units; u++) {
+            UnitDefinition unit = category.units.get(u);
+            if (affine[c] ? unit.offset == 0 && unit.numerator == unit.denominator : unit.display) {
+                candidates[count++] = u;
+            }
+        }
+        if (count == 0) {
+            for (int u = 0; u < units; u++) {
+                candidates[u] = u;
+            }
+            count = affine[c] ? 1 : units;
+        }
+        
+        double[] factors = new double[count];
+        for (int i = 0; i < count; i++) {
+            factors[i] = initial.numerators[c][candidates[i]] / initial.denominators[c][candidates[i]];
+        }
+        for (int i = 1; i < count; i++) {
+            for (int j = i; j > 0 && factors[j] < factors[j - 1]; j--) {
+                double factor = factors[j];
+                factors[j] = factors[j - 1];
+                factors[j - 1] = factor;
+                int unit = candidates[j];
+                candidates[j] = candidates[j - 1];
+                candidates[j - 1] = unit;
+            }
+        }
+        
+        int neutral = 0;
+        for (int i = 0; i < count; i++) {
+            if (Math.abs(Math.log10(factors[i])) < Math.abs(Math.log10(factors[neutral]))) {
+                neutral = i;
+            }
+            factors[i] *= DISPLAY_SLACK;
+        }
+        displayThresholds[c] = factors;
+        displayUnits[c] = Arrays.copyOf(candidates, count);
+        neutralDisplayUnits[c] = candidates[neutral];
+    }
+    
+    
+    public static UnitRegistry getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+    
+    /**
+     * Reads definitions in the {@code units.def} format. Lines starting with {@code @}
+     * declare a category, lines starting with {@code ~} state an equivalence between two
+     * units, and every other non-comment line declares a unit.
+     */
+    public static UnitRegistry load(Reader source) throws IOException {
+        List<CategoryDefinition> categories = new ArrayList<>();
+        List<Relation> equivalences = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            
+            String[] fields = line.split("\\|", -1);
+            if (line.startsWith("@")) {
+                if (fields.length != 2 && fields.length != 4) {
+                    throw invalidLine(lineNumber, "expected @<category>|<description>[|<dimension>|<scale>]");
+                }
+                String name = fields[0].substring(1).trim();
+                if (findCategory(categories, name) != null) {
+                    throw invalidLine(lineNumber, "duplicate category '" + name + "'");
+                }
+                
+                CategoryDefinition category = new CategoryDefinition(name, fields[1].trim());
+                if (fields.length == 4) {
+                    category.dimension = parseDimension(fields[2].trim());
+                    if (category.dimension == null) {
+                        throw invalidLine(lineNumber, "bad dimension '" + fields[2].trim() + "'");
+                    }
+                    try {
+                        category.scale = Double.parseDouble(fields[3].trim());
+                    } catch (NumberFormatException e) {
+                        throw invalidLine(lineNumber, "bad number (" + e.getMessage() + ")");
+                    }
+                }
+                categories.add(category);
+                continue;
+            }
+            
+            if (line.startsWith("~")) {
+                int equals = line.indexOf('=');
+                if (equals < 0) {
+                    throw invalidLine(lineNumber, "expected ~<amount> <unit> = <amount> <unit>");
+                }
+                equivalences.add(parseEquivalence(lineNumber,
+                    line.substring(1, equals).trim(), line.substring(equals + 1).trim()));
+                continue;
+            }
+            
+            if (fields.length != 6 && fields.length != 7) {
+                throw invalidLine(lineNumber,
+                    "expected <name>|<symbol>|<aliases>|<category>|<factor>|<offset>[|<flags>]");
+            }
+            
+            CategoryDefinition category = findCategory(categories, fields[3].trim());
+            if (category == null) {
+                throw invalidLine(lineNumber, "undeclared category '" + fields[3].trim() + "'");
+            }
+            
+            boolean prefixable = false;
+            boolean display = false;
+            if (fields.length == 7) {
+                for (String flag : splitList(fields[6])) {
+                    if (SI_FLAG.equals(flag)) {
+                        prefixable = true;
+                    } else if (DISPLAY_FLAG.equals(flag)) {
+                        display = true;
+                    } else {
+                        throw invalidLine(lineNumber, "unknown flag '" + flag + "'");
+                    }
+                }
+            }
+            
+            try {
+                category.units.add(new UnitDefinition(
+                    fields[0].trim(), fields[1].trim(), splitList(fields[2]),
+                    fields[4].trim(), new BigDecimal(fields[5].trim()), prefixable, display, lineNumber));
+            } catch (NumberFormatException e) {
+                throw invalidLine(lineNumber, "bad number (" + e.getMessage() + ")");
+            }
+        }
+        
+        for (CategoryDefinition category : categories) {
+            if (category.units.isEmpty()) {
+                throw new IllegalArgumentException("Category '" + category.name + "' has no units");
+            }
+        }
+        resolveFactors(categories, equivalences);
+        return new UnitRegistry(categories);
+    }
+    
+    /**
+     * Resolves units defined relative to other units, and checks every relation (including
+     * {@code ~} equivalences) against the resolved factors. A unit reachable by two paths
+     * whose factors disagree by more than {@link #CONSISTENCY_TOLERANCE} is reported, as is
+     * a unit that no chain connects to an absolute factor.
+     */
+    private static void resolveFactors(List<CategoryDefinition> categories, List<Relation> equivalences) {
+        List<Relation> relations = new ArrayList<>();
+        for (CategoryDefinition category : categories) {
+            for (UnitDefinition unit : category.units) {
+                if (unit.reference != null) {
+                    UnitDefinition other = findUnit(category, unit.reference);
+                    if (other == null) {
+                        throw invalidLine(unit.lineNumber,
+                            "unknown " + category.name.toLowerCase(Locale.ROOT) + " unit '" + unit.reference + "'");
+                    }
+                    relations.add(new Relation(unit.lineNumber, unit, other,
+                        unit.exactNumerator, unit.exactDenominator));
+                }
+            }
+        }
+        
+        for (Relation equivalence : equivalences) {
+            UnitDefinition unit = null;
+            UnitDefinition other = null;
+            for (CategoryDefinition category : categories) {
+                if (unit == null) {
+                    unit = findUnit(category, equivalence.unitName);
+                    other = unit == null ? null : findUnit(category, equivalence.otherName);
+                }
+            }
+            if (unit == null || other == null) {
+                throw invalidLine(equivalence.lineNumber, "unknown unit '"
+                    + (unit == null ? equivalence.unitName : equivalence.otherName) + "' or units of different categories");
+            }
+            relations.add(new Relation(equivalence.lineNumber, unit, other,
+                equivalence.exactNumerator, equivalence.exactDenominator));
+        }
+        
+        for (Relation relation : relations) {
+            if (relation.unit.exactOffset.signum() != 0 || relation.other.exactOffset.signum() != 0) {
+                throw invalidLine(relation.lineNumber, "units with an offset cannot be related to other units");
+            }
+        }
+        
+        boolean progress = true;
+        while (progress) {
+            progress = false;
+            for (Relation relation : relations) {
+                UnitDefinition unit = relation.unit;
+                UnitDefinition other = relation.other;
+                if (!unit.resolved && other.resolved) {
+                    unit.numerator = relation.numerator * other.numerator;
+                    unit.denominator = relation.denominator * other.denominator;
+                    unit.exactNumerator = relation.exactNumerator.multiply(other.exactNumerator);
+                    unit.exactDenominator = relation.exactDenominator.multiply(other.exactDenominator);
+                    unit.resolved = progress = true;
+                } else if (unit.resolved && !other.resolved) {
+                    other.numerator = unit.numerator * relation.denominator;
+                    other.denominator = unit.denominator * relation.numerator;
+                    other.exactNumerator = unit.exactNumerator.multiply(relation.exactDenominator);
+                    other.exactDenominator = unit.exactDenominator.multiply(relation.exactNumerator);
+                    other.resolved = progress = true;
+                }
+            }
+        }
+        
+        List<String> problems = new ArrayList<>();
+        for (Relation relation : relations) {
+            if (!relation.unit.resolved) {
+                problems.add("line " + relation.lineNumber + ": '" + relation.unit.name
+                    + "' is not connected to a unit with an absolute factor");
+                continue;
+            }
+            
+            double expected = relation.numerator / relation.denominator * relation.other.factor();
+            double actual = relation.unit.factor();
+            if (Math.abs(actual - expected) > CONSISTENCY_TOLERANCE * Math.max(actual, expected)) {
+                problems.add(String.format("line %d: 1 %s = %s base units, but %s %s gives %s",
+                    relation.lineNumber, relation.unit.name, actual,
+                    relation.numerator / relation.denominator, relation.other.name, expected));
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalArgumentException("Inconsistent unit definitions: " + String.join("; ", problems));
+        }
+        
+        for (CategoryDefinition category : categories) {
+            for (UnitDefinition unit : category.units) {
+                if (Double.isInfinite(unit.factor()) || unit.factor() == 0) {
+                    throw invalidLine(unit.lineNumber, "resolved factor of '" + unit.name + "' is out of range");
+                }
+            }
+        }
+    }
+    
+    private static Relation parseEquivalence(int lineNumber, String left, String right) {
+        int leftSplit = referenceStart(left);
+        int rightSplit = referenceStart(right);
+        if (leftSplit < 0 || rightSplit < 0) {
+            throw invalidLine(lineNumber, "expected ~<amount> <unit> = <amount> <unit>");
+        }
+        
+        try {
+            BigDecimal[] leftAmount = parseFactor(left.substring(0, leftSplit));
+            BigDecimal[] rightAmount = parseFactor(right.substring(0, rightSplit));
+            // a X = b Y, so 1 X = (b / a) Y
+            Relation relation = new Relation(lineNumber, null, null,
+                rightAmount[0].multiply(leftAmount[1]), rightAmount[1].multiply(leftAmount[0]));
+            relation.unitName = left.substring(leftSplit).trim();
+            relation.otherName = right.substring(rightSplit).trim();
+            return relation;
+        } catch (NumberFormatException e) {
+            throw invalidLine(lineNumber, "bad number (" + e.getMessage() + ")");
+        }
+    }
+    
+    /**
+     * Returns where the unit name starts in an {@code <amount> <unit>} factor, or -1 if
+     * the text is a plain number or ratio.
+     */
+    private static int referenceStart(String factor) {
+        for (int i = 0; i < factor.length(); i++) {
+            if (Character.isWhitespace(factor.charAt(i))) {
+                String rest = factor.substring(i).trim();
+                if (!rest.isEmpty() && !Character.isDigit(rest.charAt(0))
+                        && rest.charAt(0) != '.' && rest.charAt(0) != '/') {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+    
+    /** Parses a factor or ratio exactly; {@code doubleValue()} of each part is correctly rounded. */
+    private static BigDecimal[] parseFactor(String factor) {
+        BigDecimal numerator;
+        BigDecimal denominator;
+        int slash = factor.indexOf('/');
+        if (slash < 0) {
+            numerator = new BigDecimal(factor.trim());
+            denominator = BigDecimal.ONE;
+        } else {
+            numerator = new BigDecimal(factor.substring(0, slash).trim());
+            denominator = new BigDecimal(factor.substring(slash + 1).trim());
+        }
+        if (numerator.signum() <= 0 || denominator.signum() <= 0
+                || Double.isInfinite(numerator.doubleValue() / denominator.doubleValue())) {
+            throw new NumberFormatException("factor must be positive and finite: " + factor.trim());
+        }
+        return new BigDecimal[] {numerator, denominator};
+    }
+    
+    
+    public int getCategoryCount() {
+        return categoryNames.length;
+    }
+    
+    public String getCategoryName(int categoryId) {
+        return categoryNames[categoryId];
+    }
+    
+    public String getCategoryDescription(int categoryId) {
+        return categoryDescriptions[categoryId];
+    }
+    
+    
+    /**
+     * Exponents of the category's base unit over {@link #DIMENSION_SYMBOLS}, or null
+     * when the category declares no dimension and cannot appear in unit expressions.
+     */
+    public int[] getCategoryDimension(int categoryId) {
+        int[] dimension = categoryDimensions[categoryId];
+        return dimension == null ? null : dimension.clone();
+    }
+    
+    
+    public double getCategoryScale(int categoryId) {
+        return categoryScales[categoryId];
+    }
+    
+    
+    public int categoryId(String name) {
+        return name == null ? -1 : categoryIndex.find(name);
+    }
+    
+    /**
+     * Number of units defined for the category in the definition file. Synthesized
+     * prefixed units get ids after these and are not counted.
+     */
+    public int getUnitCount(int categoryId) {
+        return definedUnitCounts[categoryId];
+    }
+    
+    
+    public boolean isUnit(int categoryId, int unitId) {
+        String[][] names = tables.names;
+        return categoryId >= 0 && categoryId < names.length && unitId >= 0 && unitId < names[categoryId].length;
+    }
+    
+    public String getUnitName(int categoryId, int unitId) {
+        return tables.names[categoryId][unitId];
+    }
+    
+    public String getUnitSymbol(int categoryId, int unitId) {
+        return tables.symbols[categoryId][unitId];
+    }
+    
+    public String[] getUnitNames(int categoryId) {
+        return Arrays.copyOf(tables.names[categoryId], definedUnitCounts[categoryId]);
+    }
+    
+    public String[] getUnitAliases(int categoryId, int unitId) {
+        return tables.aliases[categoryId][unitId].clone();
+    }
+    
+    
+    public boolean isPrefixable(int categoryId, int unitId) {
+        return unitId < definedUnitCounts[categoryId] && prefixable[categoryId][unitId];
+    }
+    
+    /**
+     * Resolves a unit name, symbol or alias to its handle, or -1 when unknown.
+     * Split the handle with {@link #categoryOf} and {@link #unitOf}.
+     */
+    public int lookup(String name) {
+        if (name == null) {
+            return -1;
+        }
+        
+        int handle = tables.find(name);
+        return handle >= 0 ? handle : synthesize(name);
+    }
+    
+    
+    public int unitId(int categoryId, String name) {
+        int handle = lookup(name);
+        return handle >= 0 && categoryOf(handle) == categoryId ? unitOf(handle) : -1;
+    }
+    
+    
+    public static int handle(int categoryId, int unitId) {
+        return (categoryId << UNIT_BITS) | unitId;
+    }
+    
+    public static int categoryOf(int handle) {
+        return handle >>> UNIT_BITS;
+    }
+    
+    public static int unitOf(int handle) {
+        return handle & UNIT_MASK;
+    }
+    
+    
+    public double getNumerator(int categoryId, int unitId) {
+        return tables.numerators[categoryId][unitId];
+    }
+    
+    public double getDenominator(int categoryId, int unitId) {
+        return tables.denominators[categoryId][unitId];
+    }
+    
+    public double getOffset(int categoryId, int unitId) {
+        return tables.offsets[categoryId][unitId];
+    }
+    
+    
+    public double getFactor(int categoryId, int unitId) {
+        return tables.numerators[categoryId][unitId] / tables.denominators[categoryId][unitId];
+    }
+    
+    
+    /** The unit's factor numerator exactly as written in the definition file. */
+    public BigDecimal getExactNumerator(int categoryId, int unitId) {
+        return tables.exactNumerators[categoryId][unitId];
+    }
+    
+    public BigDecimal getExactDenominator(int categoryId, int unitId) {
+        return tables.exactDenominators[categoryId][unitId];
+    }
+    
+    public BigDecimal getExactOffset(int categoryId, int unitId) {
+        return tables.exactOffsets[categoryId][unitId];
+    }
+    
+    
+    /**
+     * Returns the unit a value given in the category's base unit reads best in: the largest
+     * display unit not larger than the value, so it shows as 1 or more, or the smallest
+     * display unit for tiny values. Zero and non-finite values get the unit closest to the
+     * base unit. Does not allocate.
+     */
+    public int bestUnit(int categoryId, double valueInBase) {
+        double magnitude = Math.abs(valueInBase);
+        if (magnitude == 0 || !(magnitude < Double.POSITIVE_INFINITY)) {
+            return neutralDisplayUnits[categoryId];
+        }
+        
+        double[] thresholds = displayThresholds[categoryId];
+        int index = Arrays.binarySearch(thresholds, magnitude);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return displayUnits[categoryId][Math.max(index, 0)];
+    }
+    
+    
+    public boolean isAffine(int categoryId) {
+        return affine[categoryId];
+    }
+    
+    
+    double[] factors(int categoryId) {
+        return tables.factors[categoryId];
+    }
+    
+    double[] offsets(int categoryId) {
+        return tables.offsets[categoryId];
+    }
+    
+    double[] numerators(int categoryId) {
+        return tables.numerators[categoryId];
+    }
+    
+    double[] denominators(int categoryId) {
+        return tables.denominators[categoryId];
+    }
+    
+    BigDecimal[] exactNumerators(int categoryId) {
+        return tables.exactNumerators[categoryId];
+    }
+    
+    BigDecimal[] exactDenominators(int categoryId) {
+        return tables.exactDenominators[categoryId];
+    }
+    
+    BigDecimal[] exactOffsets(int categoryId) {
+        return tables.exactOffsets[categoryId];
+    }
+    
+    
+    private int synthesize(String name) {
+        for (int p = 0; p < PREFIX_NAMES.length; p++) {
+            String prefix = PREFIX_NAMES[p];
+            if (name.length() > prefix.length() && name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                int base = findPrefixable(name, prefix.length(), false);
+                if (base >= 0) {
+                    return prefixed(p, base);
+                }
+            }
+        }
+        
+        for (int p = 0; p < PREFIX_SYMBOLS.length; p++) {
+            for (String symbol : PREFIX_SYMBOLS[p]) {
+                if (name.length() > symbol.length() && name.startsWith(symbol)) {
+                    int base = findPrefixable(name, symbol.length(), true);
+                    if (base >= 0) {
+                        return prefixed(p, base);
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+    
+    
+    private int findPrefixable(String name, int from, boolean bySymbol) {
+        Tables t = tables;
+        int length = name.length() - from;
+        
+        for (int c = 0; c < prefixable.length; c++) {
+            for (int u = 0; u < prefixable[c].length; u++) {
+                if (!prefixable[c][u]) {
+                    continue;
+                }
+                
+                if (bySymbol) {
+                    String symbol = t.symbols[c][u];
+                    if (symbol.length() == length && name.startsWith(symbol, from)) {
+                        return handle(c, u);
+                    }
+                    continue;
+                }
+                
+                if (matchesIgnoreCase(name, from, t.names[c][u])) {
+                    return handle(c, u);
+                }
+                for (String alias : t.aliases[c][u]) {
+                    if (matchesIgnoreCase(name, from, alias)) {
+                        return handle(c, u);
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Whether a spelling that differs from {@code symbol} only in case names an SI-prefixed
+     * unit other than {@code handle}, as "MM" would be a megameter rather than a millimeter.
+     * Nothing is synthesized.
+     */
+    boolean hasPrefixedCaseVariant(String symbol, int handle) {
+        Tables t = tables;
+        String name = t.names[categoryOf(handle)][unitOf(handle)];
+        for (int p = 0; p < PREFIX_SYMBOLS.length; p++) {
+            for (String prefix : PREFIX_SYMBOLS[p]) {
+                if (symbol.length() <= prefix.length()
+                        || !symbol.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    continue;
+                }
+                for (int c = 0; c < prefixable.length; c++) {
+                    for (int u = 0; u < prefixable[c].length; u++) {
+                        if (prefixable[c][u] && matchesIgnoreCase(symbol, prefix.length(), t.symbols[c][u])
+                                && !name.equalsIgnoreCase(PREFIX_NAMES[p] + t.names[c][u])) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static boolean matchesIgnoreCase(String name, int from, String spelling) {
+        return name.length() - from == spelling.length()
+            && name.regionMatches(true, from, spelling, 0, spelling.length());
+    }
+    
+    
+    private synchronized int prefixed(int prefix, int baseHandle) {
+        Tables t = tables;
+        int c = categoryOf(baseHandle);
+        int base = unitOf(baseHandle);
+        
+        String prefixName = PREFIX_NAMES[prefix];
+        String name = Character.toUpperCase(prefixName.charAt(0)) + prefixName.substring(1)
+            + t.names[c][base].toLowerCase(Locale.ROOT);
+        
+        List<String> spellings = new ArrayList<>();
+        spellings.add(name.toLowerCase(Locale.ROOT));
+        for (String symbol : PREFIX_SYMBOLS[prefix]) {
+            spellings.add(symbol + t.symbols[c][base]);
+        }
+        for (String alias : t.aliases[c][base]) {
+            spellings.add(prefixName + alias);
+        }
+        
+        
+        int handle = t.find(name);
+        if (handle >= 0) {
+            if (categoryOf(handle) != c) {
+                return -1;
+            }
+            for (String spelling : spellings) {
+                if (t.find(spelling) < 0) {
+                    tables = t.withSpellings(handle, spellings);
+                    break;
+                }
+            }
+            return handle;
+        }
+        
+        int unit = t.names[c].length;
+        if (unit > UNIT_MASK) {
+            return -1;
+        }
+        
+        int exponent = PREFIX_EXPONENTS[prefix];
+        double scale = POWERS_OF_TEN[Math.abs(exponent)];
+        double numerator = t.numerators[c][base];
+        double denominator = t.denominators[c][base];
+        double offset = t.offsets[c][base];
+        BigDecimal exactNumerator = t.exactNumerators[c][base];
+        BigDecimal exactDenominator = t.exactDenominators[c][base];
+        if (exponent > 0) {
+            numerator *= scale;
+            offset /= scale;
+            exactNumerator = exactNumerator.scaleByPowerOfTen(exponent);
+        } else {
+            denominator *= scale;
+            offset *= scale;
+            exactDenominator = exactDenominator.scaleByPowerOfTen(-exponent);
+        }
+        BigDecimal exactOffset = t.exactOffsets[c][base].scaleByPowerOfTen(-exponent);
+        
+        String symbol = spellings.get(1);
+        String[] aliases = spellings.subList(2, spellings.size()).toArray(new String[0]);
+        spellings.add(0, name);
+        
+        tables = t.withUnit(c, name, symbol, aliases, numerator, denominator, offset,
+            exactNumerator, exactDenominator, exactOffset, spellings);
+        return handle(c, unit);
+    }
+    
+    private static UnitDefinition findUnit(CategoryDefinition category, String spelling) {
+        for (UnitDefinition unit : category.units) {
+            if (unit.name.equals(spelling) || unit.symbol.equals(spelling)
+                    || Arrays.asList(unit.aliases).contains(spelling)) {
+                return unit;
+            }
+        }
+        return null;
+    }
+    
+    private static CategoryDefinition findCategory(List<CategoryDefinition> categories, String name) {
+        for (CategoryDefinition category : categories) {
+            if (category.name.equals(name)) {
+                return category;
+            }
+        }
+        return null;
+    }
+    
+    private static int[] parseDimension(String spec) {
+        int[] dimension = new int[DIMENSION_SYMBOLS.length];
+        for (String term : spec.split("[\\s*\u00B7]+")) {
+            if (term.isEmpty() || "1".equals(term)) {
+                continue;
+            }
+            
+            int caret = term.indexOf('^');
+            String symbol = caret < 0 ? term : term.substring(0, caret);
+            int index = Arrays.asList(DIMENSION_SYMBOLS).indexOf(symbol);
+            if (index < 0) {
+                return null;
+            }
+            try {
+                dimension[index] += caret < 0 ? 1 : Integer.parseInt(term.substring(caret + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return dimension;
+    }
+    
+    private static String[] splitList(String field) {
+        List<String> items = new ArrayList<>();
+        for (String item : field.split(",")) {
+            if (!item.trim().isEmpty()) {
+                items.add(item.trim());
+            }
+        }
+        return items.toArray(new String[0]);
+    }
+    
+    private static IllegalArgumentException invalidLine(int lineNumber, String reason) {
+        return new IllegalArgumentException("Invalid unit definition at line " + lineNumber + ": " + reason);
+    }
+    
+    
+    private static UnitRegistry loadDefault() {
+        String path = System.getProperty(UNITS_PROPERTY);
+        try {
+            if (path != null) {
+                try (Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+                    return load(reader);
+                }
+            }
+            
+            InputStream in = UnitRegistry.class.getResourceAsStream(DEFAULT_RESOURCE);
+            if (in == null) {
+                throw new IllegalStateException("Unit definitions '" + DEFAULT_RESOURCE + "' not found on classpath");
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                return load(reader);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load unit definitions: " + e.getMessage(), e);
+        }
+    }
+    
+    private static final class DefaultHolder {
+        static final UnitRegistry INSTANCE = loadDefault();
+    }
+    
+    /**
+     * Unit data and the name hash table. A published instance is never modified;
+     * synthesizing a unit builds a copy and swaps it in.
+     */
+    private static final class Tables {
+        final String[][] names;
+        final String[][] symbols;
+        final String[][][] aliases;
+        final double[][] numerators;
+        final double[][] denominators;
+        final double[][] offsets;
+        final double[][] factors;
+        final BigDecimal[][] exactNumerators;
+        final BigDecimal[][] exactDenominators;
+        final BigDecimal[][] exactOffsets;
+        
+        String[] keys;
+        int[] handles;
+        int size;
+        
+        Tables(int categories) {
+            names = new String[categories][];
+            symbols = new String[categories][];
+            aliases = new String[categories][][];
+            numerators = new double[categories][];
+            denominators = new double[categories][];
+            offsets = new double[categories][];
+            factors = new double[categories][];
+            exactNumerators = new BigDecimal[categories][];
+            exactDenominators = new BigDecimal[categories][];
+            exactOffsets = new BigDecimal[categories][];
+        }
+        
+        private Tables(Tables source) {
+            names = source.names.clone();
+            symbols = source.symbols.clone();
+            aliases = source.aliases.clone();
+            numerators = source.numerators.clone();
+            denominators = source.denominators.clone();
+            offsets = source.offsets.clone();
+            factors = source.factors.clone();
+            exactNumerators = source.exactNumerators.clone();
+            exactDenominators = source.exactDenominators.clone();
+            exactOffsets = source.exactOffsets.clone();
+            keys = source.keys.clone();
+            handles = source.handles.clone();
+            size = source.size;
+        }
+        
+        void allocate(int c, int units) {
+            names[c] = new String[units];
+            symbols[c] = new String[units];
+            aliases[c] = new String[units][];
+            numerators[c] = new double[units];
+            denominators[c] = new double[units];
+            offsets[c] = new double[units];
+            factors[c] = new double[units];
+            exactNumerators[c] = new BigDecimal[units];
+            exactDenominators[c] = new BigDecimal[units];
+            exactOffsets[c] = new BigDecimal[units];
+        }
+        
+        void set(int c, int u, String name, String symbol, String[] unitAliases,
+                 double numerator, double denominator, double offset,
+                 BigDecimal exactNumerator, BigDecimal exactDenominator, BigDecimal exactOffset) {
+            names[c][u] = name;
+            symbols[c][u] = symbol;
+            aliases[c][u] = unitAliases;
+            numerators[c][u] = numerator;
+            denominators[c][u] = denominator;
+            offsets[c][u] = offset;
+            exactNumerators[c][u] = exactNumerator;
+            exactDenominators[c][u] = exactDenominator;
+            exactOffsets[c][u] = exactOffset;
+            if (factors[c] != null) {
+                factors[c][u] = numerator / denominator;
+            }
+        }
+        
+        Tables withUnit(int c, String name, String symbol, String[] unitAliases,
+                        double numerator, double denominator, double offset,
+                        BigDecimal exactNumerator, BigDecimal exactDenominator, BigDecimal exactOffset,
+                        List<String> spellings) {
+            Tables copy = new Tables(this);
+            int unit = names[c].length;
+            copy.names[c] = Arrays.copyOf(names[c], unit + 1);
+            copy.symbols[c] = Arrays.copyOf(symbols[c], unit + 1);
+            copy.aliases[c] = Arrays.copyOf(aliases[c], unit + 1);
+            copy.numerators[c] = Arrays.copyOf(numerators[c], unit + 1);
+            copy.denominators[c] = Arrays.copyOf(denominators[c], unit + 1);
+            copy.offsets[c] = Arrays.copyOf(offsets[c], unit + 1);
+            copy.exactNumerators[c] = Arrays.copyOf(exactNumerators[c], unit + 1);
+            copy.exactDenominators[c] = Arrays.copyOf(exactDenominators[c], unit + 1);
+            copy.exactOffsets[c] = Arrays.copyOf(exactOffsets[c], unit + 1);
+            if (factors[c] != null) {
+                copy.factors[c] = Arrays.copyOf(factors[c], unit + 1);
+            }
+            copy.set(c, unit, name, symbol, unitAliases, numerator, denominator, offset,
+                exactNumerator, exactDenominator, exactOffset);
+            copy.addSpellings(handle(c, unit), spellings);
+            return copy;
+        }
+        
+        Tables withSpellings(int handle, List<String> spellings) {
+            Tables copy = new Tables(this);
+            copy.addSpellings(handle, spellings);
+            return copy;
+        }
+        
+        private void addSpellings(int handle, List<String> spellings) {
+            resize(size + spellings.size());
+            for (String spelling : spellings) {
+                intern(spelling, handle, false);
+            }
+        }
+        
+        
+        void resize(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) << 1;
+            if (keys != null && capacity <= keys.length) {
+                return;
+            }
+            
+            String[] oldKeys = keys;
+            int[] oldHandles = handles;
+            keys = new String[capacity];
+            handles = new int[capacity];
+            size = 0;
+            if (oldKeys != null) {
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != null) {
+                        intern(oldKeys[i], oldHandles[i], true);
+                    }
+                }
+            }
+        }
+        
+        int find(String name) {
+            String[] k = keys;
+            int mask = k.length - 1;
+            int i = spread(name.hashCode()) & mask;
+            String key;
+            while ((key = k[i]) != null) {
+                if (key.equals(name)) {
+                    return handles[i];
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+        
+        void intern(String key, int handle, boolean strict) {
+            if (key.isEmpty()) {
+                return;
+            }
+            
+            int mask = keys.length - 1;
+            int i = spread(key.hashCode()) & mask;
+            String existing;
+            while ((existing = keys[i]) != null) {
+                if (existing.equals(key)) {
+                    if (strict && handles[i] != handle) {
+                        throw new IllegalArgumentException("Unit name or alias '" + key + "' is defined twice");
+                    }
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            handles[i] = handle;
+            size++;
+        }
+        
+        private static int spread(int hash) {
+            hash *= 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+    
+    
+    private static final class CategoryDefinition {
+        final String name;
+        final String description;
+        final List<UnitDefinition> units = new ArrayList<>();
+        int[] dimension;
+        double scale = 1;
+        
+        CategoryDefinition(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+    }
+    
+    private static final class UnitDefinition {
+        final String name;
+        final String symbol;
+        final String[] aliases;
+        final double offset;
+        final BigDecimal exactOffset;
+        final boolean prefixable;
+        final boolean display;
+        final int lineNumber;
+        final String reference;
+        double numerator;
+        double denominator;
+        BigDecimal exactNumerator;
+        BigDecimal exactDenominator;
+        boolean resolved;
+        
+        UnitDefinition(String name, String symbol, String[] aliases, String factor,
+                       BigDecimal offset, boolean prefixable, boolean display, int lineNumber) {
+            if (name.isEmpty()) {
+                throw new NumberFormatException("unit name is empty");
+            }
+            this.name = name;
+            this.symbol = symbol.isEmpty() ? name : symbol;
+            this.aliases = aliases;
+            this.offset = offset.doubleValue();
+            this.exactOffset = offset;
+            this.prefixable = prefixable;
+            this.display = display;
+            this.lineNumber = lineNumber;
+            
+            int split = referenceStart(factor);
+            reference = split < 0 ? null : factor.substring(split).trim();
+            resolved = reference == null;
+            
+            BigDecimal[] ratio = parseFactor(split < 0 ? factor : factor.substring(0, split));
+            exactNumerator = ratio[0];
+            exactDenominator = ratio[1];
+            numerator = exactNumerator.doubleValue();
+            denominator = exactDenominator.doubleValue();
+        }
+        
+        double factor() {
+            return numerator / denominator;
+        }
+    }
+    
+    /** States that one {@code unit} equals {@code numerator / denominator} of {@code other}. */
+    private static final class Relation {
+        final int lineNumber;
+        final UnitDefinition unit;
+        final UnitDefinition other;
+        final double numerator;
+        final double denominator;
+        final BigDecimal exactNumerator;
+        final BigDecimal exactDenominator;
+        String unitName;
+        String otherName;
+        
+        Relation(int lineNumber, UnitDefinition unit, UnitDefinition other,
+                 BigDecimal exactNumerator, BigDecimal exactDenominator) {
+            this.lineNumber = lineNumber;
+            this.unit = unit;
+            this.other = other;
+            this.exactNumerator = exactNumerator;
+            this.exactDenominator = exactDenominator;
+            numerator = exactNumerator.doubleValue();
+            denominator = exactDenominator.doubleValue();
+        }
+    }
+}
\ No newline at end of file
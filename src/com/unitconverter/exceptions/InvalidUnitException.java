@@ -2,15 +2,28 @@ package com.unitconverter.exceptions;
 
 
 public class InvalidUnitException extends Exception {
+    private final int position;
     
     
     public InvalidUnitException(String message) {
-        super(message);
+        this(message, -1);
     }
     
     
     public InvalidUnitException(String message, Throwable cause) {
         super(message, cause);
+        this.position = -1;
+    }
+    
+    
+    public InvalidUnitException(String message, int position) {
+        super(message);
+        this.position = position;
+    }
+    
+    
+    public int getPosition() {
+        return position;
     }
     
     
@@ -48,4 +61,32 @@ public class InvalidUnitException extends Exception {
         );
         return new InvalidUnitException(message);
     }
+    
+    
+    public static InvalidUnitException createDimensionMismatch(String fromUnit, String fromDimension,
+                                                               String toUnit, String toDimension) {
+        String message = String.format(
+            "Cannot convert '%s' (%s) to '%s' (%s): dimensions differ", 
+            fromUnit, fromDimension, toUnit, toDimension
+        );
+        return new InvalidUnitException(message);
+    }
+    
+    
+    public static InvalidUnitException createInvalidExpression(String expression, int position, String reason) {
+        String message = String.format(
+            "Invalid unit expression '%s' at position %d: %s", 
+            expression, position, reason
+        );
+        return new InvalidUnitException(message, position);
+    }
+    
+    
+    public static InvalidUnitException createInvalidQuery(String query, int position, String reason) {
+        String message = String.format(
+            "Invalid conversion query '%s' at position %d: %s", 
+            query, position, reason
+        );
+        return new InvalidUnitException(message, position);
+    }
 }
@@ -1,44 +1,65 @@
 package com.unitconverter.models;
 
+import com.unitconverter.ConversionLogic;
 import java.util.Objects;
 
-
+/**
+ * A validated conversion request by unit names. High-volume code can use the packed
+ * {@link #getPairKey() pair key} with {@link MutableConversionRequest} or
+ * {@link com.unitconverter.ConversionBatch} instead of one of these per conversion.
+ */
 public class ConversionRequest {
     private final double inputValue;
     private final String fromUnit;
     private final String toUnit;
     private final String category;
     private final long timestamp;
+    // resolved lazily since unknown units only fail when converted; volatile so a long
+    // published from another thread is never read half-written
+    private volatile long pairKey = -1;
     
     
     public ConversionRequest(double inputValue, String fromUnit, String toUnit, String category) {
+        this(inputValue, fromUnit, toUnit, category, System.currentTimeMillis());
+    }
+    
+    /** Creates a request with a caller-supplied timestamp, or 0 for none. */
+    public ConversionRequest(double inputValue, String fromUnit, String toUnit, String category, long timestamp) {
         this.inputValue = inputValue;
         this.fromUnit = fromUnit;
         this.toUnit = toUnit;
         this.category = category;
-        this.timestamp = System.currentTimeMillis();
+        this.timestamp = timestamp;
         validate();
     }
     
     
     private void validate() {
-        if (Double.isNaN(inputValue) || Double.isInfinite(inputValue)) {
-            throw new IllegalArgumentException("Input value must be a finite number");
-        }
+        checkFinite(inputValue);
         
-        if (fromUnit == null || fromUnit.trim().isEmpty()) {
+        if (isBlank(fromUnit)) {
             throw new IllegalArgumentException("Source unit cannot be null or empty");
         }
         
-        if (toUnit == null || toUnit.trim().isEmpty()) {
+        if (isBlank(toUnit)) {
             throw new IllegalArgumentException("Target unit cannot be null or empty");
         }
         
-        if (category == null || category.trim().isEmpty()) {
+        if (isBlank(category)) {
             throw new IllegalArgumentException("Category cannot be null or empty");
         }
         
         
+        checkSign(inputValue, category);
+    }
+    
+    static void checkFinite(double inputValue) {
+        if (Double.isNaN(inputValue) || Double.isInfinite(inputValue)) {
+            throw new IllegalArgumentException("Input value must be a finite number");
+        }
+    }
+    
+    static void checkSign(double inputValue, String category) {
         if (inputValue < 0 && !"Temperature".equals(category)) {
             throw new IllegalArgumentException(
                 "Negative values are not allowed for " + category + " conversions"
@@ -46,6 +67,18 @@ public class ConversionRequest {
         }
     }
     
+    static boolean isBlank(String text) {
+        if (text == null) {
+            return true;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
     
     public double getInputValue() {
         return inputValue;
@@ -67,6 +100,20 @@ public class ConversionRequest {
         return timestamp;
     }
     
+    /**
+     * Returns the unit pair packed by {@link ConversionLogic#pairKey}, resolved on first call.
+     *
+     * @throws IllegalArgumentException if the category or a unit is unknown
+     */
+    public long getPairKey() {
+        long key = pairKey;
+        if (key < 0) {
+            key = ConversionLogic.pairKey(category, fromUnit, toUnit);
+            pairKey = key;
+        }
+        return key;
+    }
+    
     
     public boolean isSelfConversion() {
         return fromUnit.equals(toUnit);
@@ -99,7 +146,10 @@ public class ConversionRequest {
     
     @Override
     public int hashCode() {
-        return Objects.hash(inputValue, fromUnit, toUnit, category);
+        int hash = Double.hashCode(inputValue);
+        hash = 31 * hash + fromUnit.hashCode();
+        hash = 31 * hash + toUnit.hashCode();
+        return 31 * hash + category.hashCode();
     }
     
     @Override
@@ -116,6 +166,8 @@ public class ConversionRequest {
         private String fromUnit;
         private String toUnit;
         private String category;
+        private long timestamp;
+        private boolean timestampSet;
         
         public Builder setInputValue(double inputValue) {
             this.inputValue = inputValue;
@@ -137,8 +189,16 @@ public class ConversionRequest {
             return this;
         }
         
+        /** Sets the timestamp, or 0 for none; without this call the request is stamped when built. */
+        public Builder setTimestamp(long timestamp) {
+            this.timestamp = timestamp;
+            this.timestampSet = true;
+            return this;
+        }
+        
         public ConversionRequest build() {
-            return new ConversionRequest(inputValue, fromUnit, toUnit, category);
+            return new ConversionRequest(inputValue, fromUnit, toUnit, category,
+                timestampSet ? timestamp : System.currentTimeMillis());
         }
     }
 }
@@ -1,9 +1,12 @@
 package com.unitconverter.models;
 
-import java.text.DecimalFormat;
+import com.unitconverter.utils.NumberFormatter;
 import java.util.Objects;
 
 
+/**
+ * The outcome of a conversion. The calculation time is in nanoseconds.
+ */
 public class ConversionResult {
     private final ConversionRequest request;
     private final double resultValue;
@@ -12,8 +15,7 @@ public class ConversionResult {
     private final String errorMessage;
     
     
-    private static final ThreadLocal<DecimalFormat> DECIMAL_FORMAT = 
-        ThreadLocal.withInitial(() -> new DecimalFormat("#.######"));
+    private static final int DISPLAY_DECIMALS = 6;
     
     
     public ConversionResult(ConversionRequest request, double resultValue, long calculationTime) {
@@ -70,12 +72,12 @@ public class ConversionResult {
         if (!success) {
             return "Conversion failed";
         }
-        return DECIMAL_FORMAT.get().format(resultValue);
+        return NumberFormatter.formatTrimmed(resultValue, DISPLAY_DECIMALS);
     }
     
     
     public String getFormattedInput() {
-        return DECIMAL_FORMAT.get().format(request.getInputValue());
+        return NumberFormatter.formatTrimmed(request.getInputValue(), DISPLAY_DECIMALS);
     }
     
     
@@ -85,10 +87,10 @@ public class ConversionResult {
                 request.getDescription(), errorMessage);
         }
         
-        return String.format("Converted %s %s to %s %s (took %d ms)",
+        return String.format("Converted %s %s to %s %s (took %s)",
             getFormattedInput(), request.getFromUnit(),
             getFormattedResult(), request.getToUnit(),
-            calculationTime);
+            formatDuration(calculationTime));
     }
     
     
@@ -108,12 +110,24 @@ public class ConversionResult {
     }
     
     
+    /** Returns the conversion rate this result's timing implies, in conversions per second. */
     public double getEfficiency() {
         if (!success || calculationTime == 0) {
             return 0;
         }
         
-        return 1000.0 / calculationTime;
+        return 1e9 / calculationTime;
+    }
+    
+    
+    private static String formatDuration(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + " ns";
+        }
+        if (nanos < 1_000_000) {
+            return NumberFormatter.formatTrimmed(nanos / 1e3, 1) + " \u00B5s";
+        }
+        return NumberFormatter.formatTrimmed(nanos / 1e6, 1) + " ms";
     }
     
     
@@ -146,7 +160,7 @@ public class ConversionResult {
         }
         
         return String.format(
-            "ConversionResult{success=true, result=%.6f, time=%dms, request=%s}",
+            "ConversionResult{success=true, result=%.6f, time=%dns, request=%s}",
             resultValue, calculationTime, request
         );
     }
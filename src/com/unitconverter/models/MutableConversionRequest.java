@@ -0,0 +1,83 @@
+package com.unitconverter.models;
+
+import com.unitconverter.ConversionLogic;
+
+/**
+ * A reusable conversion request: a packed unit pair from {@link ConversionLogic#pairKey},
+ * a primitive value and an optional timestamp. Pipelines keep one per thread and refill it
+ * instead of creating a {@link ConversionRequest} per conversion. Setting by names
+ * validates like {@code ConversionRequest}; setting a pair key directly does not.
+ */
+public final class MutableConversionRequest {
+    private long pairKey;
+    private double inputValue;
+    private long timestamp;
+    
+    
+    public MutableConversionRequest set(long pairKey, double inputValue) {
+        return set(pairKey, inputValue, 0);
+    }
+    
+    public MutableConversionRequest set(long pairKey, double inputValue, long timestamp) {
+        this.pairKey = pairKey;
+        this.inputValue = inputValue;
+        this.timestamp = timestamp;
+        return this;
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the value is not finite, is negative outside
+     *         Temperature, or the category or a unit is unknown
+     */
+    public MutableConversionRequest set(String category, String fromUnit, String toUnit, double inputValue) {
+        ConversionRequest.checkFinite(inputValue);
+        ConversionRequest.checkSign(inputValue, category);
+        return set(ConversionLogic.pairKey(category, fromUnit, toUnit), inputValue, 0);
+    }
+    
+    public MutableConversionRequest set(ConversionRequest request) {
+        return set(request.getPairKey(), request.getInputValue(), request.getTimestamp());
+    }
+    
+    
+    public long getPairKey() {
+        return pairKey;
+    }
+    
+    public int getCategoryId() {
+        return ConversionLogic.categoryOfPair(pairKey);
+    }
+    
+    public int getFromUnitId() {
+        return ConversionLogic.fromUnitOfPair(pairKey);
+    }
+    
+    public int getToUnitId() {
+        return ConversionLogic.toUnitOfPair(pairKey);
+    }
+    
+    public double getInputValue() {
+        return inputValue;
+    }
+    
+    /** Returns the timestamp, or 0 if none was set. */
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    
+    public double convert() {
+        return ConversionLogic.convert(pairKey, inputValue);
+    }
+    
+    /** Converts and stores the outcome in {@code result}, which is returned. */
+    public MutableConversionResult convertInto(MutableConversionResult result) {
+        return result.set(pairKey, inputValue, convert(), timestamp);
+    }
+    
+    @Override
+    public String toString() {
+        return "MutableConversionRequest{pair=" + Long.toHexString(pairKey) + ", value=" + inputValue
+            + ", timestamp=" + timestamp + "}";
+    }
+}
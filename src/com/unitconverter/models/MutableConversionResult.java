@@ -0,0 +1,59 @@
+package com.unitconverter.models;
+
+import com.unitconverter.ConversionLogic;
+
+/**
+ * A reusable conversion outcome, filled by {@link MutableConversionRequest#convertInto} or
+ * {@link com.unitconverter.ConversionBatch#read}, for pipelines that avoid allocating a
+ * {@link ConversionResult} per conversion.
+ */
+public final class MutableConversionResult {
+    private long pairKey;
+    private double inputValue;
+    private double resultValue;
+    private long timestamp;
+    
+    
+    public MutableConversionResult set(long pairKey, double inputValue, double resultValue, long timestamp) {
+        this.pairKey = pairKey;
+        this.inputValue = inputValue;
+        this.resultValue = resultValue;
+        this.timestamp = timestamp;
+        return this;
+    }
+    
+    
+    public long getPairKey() {
+        return pairKey;
+    }
+    
+    public int getCategoryId() {
+        return ConversionLogic.categoryOfPair(pairKey);
+    }
+    
+    public int getFromUnitId() {
+        return ConversionLogic.fromUnitOfPair(pairKey);
+    }
+    
+    public int getToUnitId() {
+        return ConversionLogic.toUnitOfPair(pairKey);
+    }
+    
+    public double getInputValue() {
+        return inputValue;
+    }
+    
+    public double getResultValue() {
+        return resultValue;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    @Override
+    public String toString() {
+        return "MutableConversionResult{pair=" + Long.toHexString(pairKey) + ", value=" + inputValue
+            + ", result=" + resultValue + ", timestamp=" + timestamp + "}";
+    }
+}
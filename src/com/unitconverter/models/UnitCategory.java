@@ -1,40 +1,46 @@
 package com.unitconverter.models;
 
+import com.unitconverter.UnitRegistry;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
-
+/**
+ * The categories the converter started out with, kept for code that refers to them by
+ * constant. Only these legacy categories are covered; names, descriptions and units all
+ * come from the {@link UnitRegistry}, which also holds every other category.
+ */
 public enum UnitCategory {
-    LENGTH("Length", "Distance measurements", Arrays.asList(
-        "Meter", "Kilometer", "Centimeter", "Millimeter", 
-        "Mile", "Yard", "Foot", "Inch"
-    )),
-    
-    WEIGHT("Weight", "Mass measurements", Arrays.asList(
-        "Kilogram", "Gram", "Milligram", "Pound", "Ounce", "Ton"
-    )),
-    
-    TEMPERATURE("Temperature", "Temperature scales", Arrays.asList(
-        "Celsius", "Fahrenheit", "Kelvin"
-    )),
-    
-    VOLUME("Volume", "Capacity measurements", Arrays.asList(
-        "Liter", "Milliliter", "Gallon", "Cubic Meter"
-    )),
-    
-    AREA("Area", "Surface area measurements", Arrays.asList(
-        "Square Meter", "Square Kilometer", "Acre", "Hectare"
-    ));
+    LENGTH,
+    WEIGHT,
+    TEMPERATURE,
+    VOLUME,
+    AREA;
     
     private final String displayName;
     private final String description;
+    private final int categoryId;
     private final List<String> supportedUnits;
     
     
-    UnitCategory(String displayName, String description, List<String> supportedUnits) {
-        this.displayName = displayName;
-        this.description = description;
-        this.supportedUnits = supportedUnits;
+    UnitCategory() {
+        UnitRegistry registry = UnitRegistry.getDefault();
+        this.categoryId = findCategory(registry, name());
+        this.displayName = categoryId < 0 ? name() : registry.getCategoryName(categoryId);
+        this.description = categoryId < 0 ? "" : registry.getCategoryDescription(categoryId);
+        this.supportedUnits = categoryId < 0
+            ? Collections.<String>emptyList()
+            : Collections.unmodifiableList(Arrays.asList(registry.getUnitNames(categoryId)));
+    }
+    
+    
+    private static int findCategory(UnitRegistry registry, String constant) {
+        for (int c = 0; c < registry.getCategoryCount(); c++) {
+            if (registry.getCategoryName(c).equalsIgnoreCase(constant)) {
+                return c;
+            }
+        }
+        return -1;
     }
     
     
@@ -46,6 +52,11 @@ public enum UnitCategory {
         return description;
     }
     
+    
+    public int getCategoryId() {
+        return categoryId;
+    }
+    
     public List<String> getSupportedUnits() {
         return supportedUnits;
     }
@@ -56,7 +67,7 @@ public enum UnitCategory {
     
     
     public boolean supportsUnit(String unit) {
-        return supportedUnits.contains(unit);
+        return categoryId >= 0 && UnitRegistry.getDefault().unitId(categoryId, unit) >= 0;
     }
     
     
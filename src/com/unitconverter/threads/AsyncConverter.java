@@ -0,0 +1,97 @@
+package com.unitconverter.threads;
+
+import com.unitconverter.ConversionLogic;
+import com.unitconverter.models.ConversionRequest;
+import com.unitconverter.models.ConversionResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous conversions with {@link CompletableFuture}, independent of Swing, for
+ * headless use. Work runs on a pluggable {@link Executor}; by default one virtual thread
+ * per task where the JDK has them, otherwise the shared {@link ConversionExecutor}.
+ *
+ * <p>Cancelling a future, or letting it time out, completes it at once. A conversion that
+ * has not started is then skipped; one that has started runs to completion (it takes
+ * microseconds) and its result is dropped.
+ */
+public final class AsyncConverter {
+    public static final int BATCH_CHUNK_SIZE = 4096;
+    
+    private final Executor executor;
+    
+    
+    public AsyncConverter() {
+        this(DefaultExecutor.EXECUTOR);
+    }
+    
+    public AsyncConverter(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        this.executor = executor;
+    }
+    
+    
+    /** Converts on the executor; fails with {@code IllegalArgumentException} for unknown units. */
+    public CompletableFuture<ConversionResult> convert(ConversionRequest request) {
+        return CompletableFuture.supplyAsync(() -> ConversionExecutor.convert(request), executor);
+    }
+    
+    /** Like {@link #convert(ConversionRequest)}, failing with a {@code TimeoutException} after {@code timeout}. */
+    public CompletableFuture<ConversionResult> convert(ConversionRequest request, long timeout, TimeUnit unit) {
+        return convert(request).orTimeout(timeout, unit);
+    }
+    
+    /**
+     * Converts a list of requests in chunks of {@link #BATCH_CHUNK_SIZE}, each chunk a task
+     * of its own through {@link ConversionLogic#convertBatch}, and completes with the
+     * results in request order. A request that fails gets an error result rather than
+     * failing the batch. Cancelling the returned future skips chunks not yet started.
+     */
+    public CompletableFuture<List<ConversionResult>> convertAll(List<ConversionRequest> requests) {
+        List<CompletableFuture<List<ConversionResult>>> chunks = new ArrayList<>();
+        for (int start = 0; start < requests.size(); start += BATCH_CHUNK_SIZE) {
+            List<ConversionRequest> chunk = requests.subList(start, Math.min(requests.size(), start + BATCH_CHUNK_SIZE));
+            chunks.add(CompletableFuture.supplyAsync(() -> ConversionLogic.convertBatch(chunk), executor));
+        }
+        
+        CompletableFuture<List<ConversionResult>> all = CompletableFuture
+            .allOf(chunks.toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> {
+                List<ConversionResult> results = new ArrayList<>(requests.size());
+                for (CompletableFuture<List<ConversionResult>> chunk : chunks) {
+                    results.addAll(chunk.join());
+                }
+                return results;
+            });
+        all.whenComplete((results, failure) -> {
+            if (failure != null) {
+                for (CompletableFuture<List<ConversionResult>> chunk : chunks) {
+                    chunk.cancel(false);
+                }
+            }
+        });
+        return all;
+    }
+    
+    public CompletableFuture<List<ConversionResult>> convertAll(List<ConversionRequest> requests,
+                                                                long timeout, TimeUnit unit) {
+        return convertAll(requests).orTimeout(timeout, unit);
+    }
+    
+    
+    public Executor getExecutor() {
+        return executor;
+    }
+    
+    
+    private static final class DefaultExecutor {
+        static final Executor EXECUTOR = ConversionExecutor.isVirtualThreadsSupported()
+            ? ConversionExecutor.virtual()
+            : ConversionExecutor.getDefault();
+    }
+}
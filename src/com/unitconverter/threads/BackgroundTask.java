@@ -1,14 +1,17 @@
 package com.unitconverter.threads;
 
 import javax.swing.*;
-import java.awt.BorderLayout;
 import com.unitconverter.models.ConversionRequest;
 import com.unitconverter.models.ConversionResult;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 
 
 public class BackgroundTask extends SwingWorker<ConversionResult, Void> {
     private final ConversionRequest request;
     private final ConversionCallback callback;
+    private final AtomicBoolean delivered = new AtomicBoolean();
     
     
     public interface ConversionCallback {
@@ -17,6 +20,28 @@ public class BackgroundTask extends SwingWorker<ConversionResult, Void> {
     }
     
     
+    /**
+     * Adapts a callback to a {@link java.util.concurrent.CompletableFuture} from
+     * {@link AsyncConverter}: pass the result to {@code whenComplete} and the callback runs
+     * on the EDT, with errors reported as this task reports them.
+     */
+    public static BiConsumer<ConversionResult, Throwable> onEventDispatchThread(ConversionCallback callback) {
+        return (result, failure) -> SwingUtilities.invokeLater(() -> {
+            if (failure == null) {
+                callback.onConversionComplete(result);
+                return;
+            }
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+            if (cause instanceof IllegalArgumentException) {
+                callback.onConversionError(new Exception("Conversion failed: " + cause.getMessage(), cause));
+            } else {
+                callback.onConversionError(cause instanceof Exception ? (Exception) cause : new Exception(cause));
+            }
+        });
+    }
+    
+    
     public BackgroundTask(ConversionRequest request, ConversionCallback callback) {
         this.request = request;
         this.callback = callback;
@@ -25,38 +50,36 @@ public class BackgroundTask extends SwingWorker<ConversionResult, Void> {
     
     @Override
     protected ConversionResult doInBackground() throws Exception {
-        
-        Thread.sleep(100);
-        
-        long startTime = System.currentTimeMillis();
-        
         try {
-            
-            Class<?> conversionLogicClass = Class.forName("com.unitconverter.ConversionLogic");
-            java.lang.reflect.Method convertMethod = conversionLogicClass.getMethod(
-                "convert", String.class, String.class, String.class, double.class
-            );
-            
-            double result = (Double) convertMethod.invoke(
-                null, 
-                request.getCategory(),
-                request.getFromUnit(),
-                request.getToUnit(),
-                request.getInputValue()
-            );
-            
-            long calculationTime = System.currentTimeMillis() - startTime;
-            
-            return new ConversionResult(request, result, calculationTime);
-            
-        } catch (Exception e) {
+            return ConversionExecutor.convert(request);
+        } catch (IllegalArgumentException e) {
             throw new Exception("Conversion failed: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Runs this task on the shared {@link ConversionExecutor} instead of SwingWorker's own
+     * pool, and hands the result to the callback on the EDT as soon as it is ready.
+     * ({@link #execute()} works too, but SwingWorker batches {@code done()} on a timer
+     * that adds about 33 ms.)
+     */
+    public void start() {
+        ConversionExecutor.getDefault().execute(() -> {
+            run();
+            SwingUtilities.invokeLater(this::deliver);
+        });
+    }
+    
     
     @Override
     protected void done() {
+        deliver();
+    }
+    
+    private void deliver() {
+        if (!delivered.compareAndSet(false, true)) {
+            return;
+        }
         try {
             ConversionResult result = get();
             if (callback != null) {
@@ -90,72 +113,20 @@ public class BackgroundTask extends SwingWorker<ConversionResult, Void> {
     }
     
     
+    /**
+     * Starts the conversion and shows a progress dialog over {@code parentComponent} only
+     * if it is still running after a short grace period. Returns without waiting; the
+     * outcome goes to {@code callback}.
+     */
     public static BackgroundTask executeWithProgress(
             ConversionRequest request, 
             ConversionCallback callback,
             java.awt.Component parentComponent) {
         
         BackgroundTask task = new BackgroundTask(request, callback);
-        
-        
-        JDialog progressDialog = new JDialog(
-            parentComponent instanceof JFrame ? (JFrame) parentComponent : null,
-            "Converting...", 
-            true
-        );
-        progressDialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
-        progressDialog.setSize(300, 100);
-        progressDialog.setLocationRelativeTo(parentComponent);
-        
-        JProgressBar progressBar = new JProgressBar(0, 100);
-        progressBar.setIndeterminate(true);
-        progressBar.setStringPainted(true);
-        progressBar.setString("Performing conversion...");
-        
-        JButton cancelButton = new JButton("Cancel");
-        cancelButton.addActionListener(e -> {
-            if (task.cancel(true)) {
-                progressDialog.dispose();
-            }
-        });
-        
-        JPanel panel = new JPanel(new BorderLayout());
-        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        panel.add(progressBar, BorderLayout.CENTER);
-        panel.add(cancelButton, BorderLayout.SOUTH);
-        
-        progressDialog.add(panel);
-        
-        
-        task.addPropertyChangeListener(evt -> {
-            if ("progress".equals(evt.getPropertyName())) {
-                int progress = (Integer) evt.getNewValue();
-                progressBar.setValue(progress);
-                progressBar.setString("Converting... " + progress + "%");
-            } else if ("state".equals(evt.getPropertyName())) {
-                if (SwingWorker.StateValue.DONE == evt.getNewValue()) {
-                    progressDialog.dispose();
-                }
-            }
-        });
-        
-        task.execute();
-        
-        
-        new Thread(() -> {
-            try {
-                
-                for (int i = 0; i <= 100 && !task.isDone(); i += 10) {
-                    task.setProgress(i);
-                    Thread.sleep(50);
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }).start();
-        
-        progressDialog.setVisible(true);
-        
+        task.start();
+        ProgressDialog.showAfterGrace(task, parentComponent, "Performing conversion...",
+            ProgressDialog.DEFAULT_GRACE_MILLIS);
         return task;
     }
 }
@@ -0,0 +1,67 @@
+package com.unitconverter.threads;
+
+import com.unitconverter.ConversionBatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * The primitive counterpart of {@link ConversionProcessor}: each item is a whole
+ * {@link ConversionBatch}, converted in place with {@link ConversionBatch#convertGrouped()}
+ * and handed on as is, so nothing is allocated per value. A publisher must not touch a
+ * batch again after sending it, unless a subscriber hands it back for reuse.
+ *
+ * <p>Upstream is asked for one batch at a time, and {@link #submit} blocks while a
+ * subscriber's buffer is full, so at most {@code maxBufferCapacity} batches per subscriber
+ * are held. A batch with an unknown unit pair fails the stream.
+ */
+public class BatchConversionProcessor extends SubmissionPublisher<ConversionBatch>
+        implements Flow.Processor<ConversionBatch, ConversionBatch> {
+    private Flow.Subscription subscription;
+    
+    
+    /** Uses the {@code SubmissionPublisher} default executor and buffer size. */
+    public BatchConversionProcessor() {
+    }
+    
+    public BatchConversionProcessor(Executor executor, int maxBufferCapacity) {
+        super(executor, maxBufferCapacity);
+    }
+    
+    
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+    
+    @Override
+    public void onNext(ConversionBatch batch) {
+        if (isClosed()) {
+            return;
+        }
+        try {
+            batch.convertGrouped();
+        } catch (IllegalArgumentException e) {
+            subscription.cancel();
+            closeExceptionally(e);
+            return;
+        }
+        submit(batch);
+        subscription.request(1);
+    }
+    
+    @Override
+    public void onError(Throwable failure) {
+        closeExceptionally(failure);
+    }
+    
+    @Override
+    public void onComplete() {
+        close();
+    }
+}
@@ -0,0 +1,116 @@
+package com.unitconverter.threads;
+
+import com.unitconverter.ConversionLogic;
+import com.unitconverter.models.ConversionRequest;
+import com.unitconverter.models.ConversionResult;
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+/**
+ * Converts a list of requests in the background with {@link ConversionLogic#convertBatch},
+ * a chunk at a time. After each chunk the percentage done is {@link #publish published}
+ * and {@link #process} turns the latest value into the {@code progress} property, so a
+ * progress dialog shows real progress. Cancelling stops at the next chunk.
+ */
+public class BatchConversionTask extends SwingWorker<List<ConversionResult>, Integer> {
+    public static final int CHUNK_SIZE = 4096;
+    
+    private final List<ConversionRequest> requests;
+    private final BatchCallback callback;
+    private final AtomicBoolean delivered = new AtomicBoolean();
+    
+    
+    public interface BatchCallback {
+        void onBatchComplete(List<ConversionResult> results);
+        void onBatchError(Exception e);
+    }
+    
+    
+    public BatchConversionTask(List<ConversionRequest> requests, BatchCallback callback) {
+        this.requests = requests;
+        this.callback = callback;
+    }
+    
+    
+    @Override
+    protected List<ConversionResult> doInBackground() {
+        int count = requests.size();
+        List<ConversionResult> results = new ArrayList<>(count);
+        int reported = 0;
+        for (int start = 0; start < count; start += CHUNK_SIZE) {
+            if (isCancelled() || Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Batch conversion cancelled");
+            }
+            int end = Math.min(count, start + CHUNK_SIZE);
+            results.addAll(ConversionLogic.convertBatch(requests.subList(start, end)));
+            
+            int percent = (int) (100L * end / count);
+            if (percent != reported) {
+                reported = percent;
+                publish(percent);
+            }
+        }
+        return results;
+    }
+    
+    @Override
+    protected void process(List<Integer> percentages) {
+        setProgress(percentages.get(percentages.size() - 1));
+    }
+    
+    /**
+     * Runs this task on the shared {@link ConversionExecutor} and hands the results to
+     * the callback on the EDT as soon as they are ready.
+     */
+    public void start() {
+        ConversionExecutor.getDefault().execute(() -> {
+            run();
+            SwingUtilities.invokeLater(this::deliver);
+        });
+    }
+    
+    
+    @Override
+    protected void done() {
+        deliver();
+    }
+    
+    private void deliver() {
+        if (callback == null || !delivered.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            callback.onBatchComplete(get());
+        } catch (ExecutionException e) {
+            callback.onBatchError(e.getCause() instanceof Exception
+                ? (Exception) e.getCause() : new Exception(e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            callback.onBatchError(new Exception("Batch conversion was interrupted", e));
+        } catch (CancellationException e) {
+            callback.onBatchError(e);
+        }
+    }
+    
+    
+    /**
+     * Starts the batch and shows a progress dialog over {@code parentComponent} if it is
+     * still running after a short grace period. Returns without waiting.
+     */
+    public static BatchConversionTask executeWithProgress(
+            List<ConversionRequest> requests,
+            BatchCallback callback,
+            Component parentComponent) {
+        BatchConversionTask task = new BatchConversionTask(requests, callback);
+        task.start();
+        ProgressDialog.showAfterGrace(task, parentComponent, "Converting " + requests.size() + " values...",
+            ProgressDialog.DEFAULT_GRACE_MILLIS);
+        return task;
+    }
+}
@@ -0,0 +1,181 @@
+package com.unitconverter.threads;
+
+import com.unitconverter.ConversionLogic;
+import com.unitconverter.models.ConversionRequest;
+import com.unitconverter.models.ConversionResult;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs conversions off the calling thread. Work is dispatched straight into
+ * {@link ConversionLogic} and timed with {@link System#nanoTime}, so a background
+ * conversion costs microseconds rather than a sleep and a reflective call.
+ *
+ * <p>The pool is either a fixed set of daemon platform threads or, on a JDK that has
+ * them, one virtual thread per task. {@link #getDefault()} picks one from
+ * {@code -Dunitconverter.executor=platform|virtual}, falling back to platform threads.
+ */
+public final class ConversionExecutor implements Executor, AutoCloseable {
+    public static final String EXECUTOR_PROPERTY = "unitconverter.executor";
+    
+    // Executors.newVirtualThreadPerTaskExecutor() exists from JDK 21; looked up once
+    private static final MethodHandle VIRTUAL_FACTORY = findVirtualFactory();
+    
+    private static volatile ConversionExecutor defaultExecutor;
+    
+    private final ExecutorService pool;
+    private final boolean virtual;
+    
+    
+    private ConversionExecutor(ExecutorService pool, boolean virtual) {
+        this.pool = pool;
+        this.virtual = virtual;
+    }
+    
+    
+    /** Creates an executor with {@code threads} daemon platform threads. */
+    public static ConversionExecutor platform(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        return new ConversionExecutor(Executors.newFixedThreadPool(threads, new DaemonThreadFactory()), false);
+    }
+    
+    /**
+     * Creates an executor that starts a virtual thread per task.
+     *
+     * @throws UnsupportedOperationException if the running JDK has no virtual threads
+     */
+    public static ConversionExecutor virtual() {
+        if (VIRTUAL_FACTORY == null) {
+            throw new UnsupportedOperationException("Virtual threads need JDK 21 or later");
+        }
+        try {
+            return new ConversionExecutor((ExecutorService) VIRTUAL_FACTORY.invoke(), true);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot create virtual thread executor", e);
+        }
+    }
+    
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_FACTORY != null;
+    }
+    
+    /** Returns the shared executor, creating it on first use. It is never shut down. */
+    public static ConversionExecutor getDefault() {
+        ConversionExecutor executor = defaultExecutor;
+        if (executor == null) {
+            synchronized (ConversionExecutor.class) {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    boolean useVirtual = "virtual".equalsIgnoreCase(System.getProperty(EXECUTOR_PROPERTY));
+                    executor = useVirtual && isVirtualThreadsSupported()
+                        ? virtual()
+                        : platform(Runtime.getRuntime().availableProcessors());
+                    defaultExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+    
+    /**
+     * Returns the scheduler shared by progress reporting and other delayed UI work: one
+     * daemon thread for the whole application, so timed jobs never start threads of their own.
+     */
+    public static ScheduledExecutorService scheduler() {
+        return SchedulerHolder.SCHEDULER;
+    }
+    
+    private static MethodHandle findVirtualFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                MethodType.methodType(ExecutorService.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+    
+    
+    /**
+     * Converts on the calling thread and reports the elapsed time in nanoseconds.
+     *
+     * @throws IllegalArgumentException if a unit is unknown or the result is not finite
+     */
+    public static ConversionResult convert(ConversionRequest request) {
+        long start = System.nanoTime();
+        double result = ConversionLogic.convert(request.getCategory(), request.getFromUnit(),
+            request.getToUnit(), request.getInputValue());
+        return new ConversionResult(request, result, System.nanoTime() - start);
+    }
+    
+    public Future<ConversionResult> submit(ConversionRequest request) {
+        return pool.submit(() -> convert(request));
+    }
+    
+    public <T> Future<T> submit(Callable<T> task) {
+        return pool.submit(task);
+    }
+    
+    @Override
+    public void execute(Runnable task) {
+        pool.execute(task);
+    }
+    
+    
+    public boolean isVirtual() {
+        return virtual;
+    }
+    
+    public void shutdown() {
+        pool.shutdown();
+    }
+    
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+    
+    /** Shuts down and waits for running conversions to finish. */
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    
+    private static final class SchedulerHolder {
+        static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "conversion-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOLS = new AtomicInteger();
+        private final int pool = POOLS.incrementAndGet();
+        private final AtomicInteger threads = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "conversion-" + pool + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.unitconverter.threads;
+
+import com.unitconverter.ConversionLogic;
+import com.unitconverter.models.ConversionRequest;
+import com.unitconverter.models.ConversionResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Converts a stream of requests as they arrive. Requests are collected into batches of up
+ * to {@code batchSize} and converted with {@link ConversionLogic#convertBatch}; a batch
+ * that does not fill up is converted anyway once its first request has waited
+ * {@code lingerMillis}. Failed requests become error results, as in a batch.
+ *
+ * <p>Memory stays bounded under fast producers: upstream is never asked for more than one
+ * batch beyond what has been converted, and results are handed on with
+ * {@link #submit}, which blocks while a subscriber's buffer of {@code maxBufferCapacity}
+ * results is full, so a slow subscriber slows the upstream down. As with any
+ * {@code SubmissionPublisher}, subscribe before the upstream starts; results produced
+ * while nobody is subscribed are dropped.
+ */
+public class ConversionProcessor extends SubmissionPublisher<ConversionResult>
+        implements Flow.Processor<ConversionRequest, ConversionResult> {
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final long DEFAULT_LINGER_MILLIS = 5;
+    
+    private final int batchSize;
+    private final long lingerMillis;
+    private final List<ConversionRequest> pending;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Flow.Subscription subscription;
+    private ScheduledFuture<?> linger;
+    private long batchNumber;
+    
+    
+    /** Uses the {@code SubmissionPublisher} default executor and buffer size. */
+    public ConversionProcessor() {
+        this.batchSize = DEFAULT_BATCH_SIZE;
+        this.lingerMillis = DEFAULT_LINGER_MILLIS;
+        this.pending = new ArrayList<>(batchSize);
+    }
+    
+    /**
+     * @param executor delivers results to subscribers and runs lingering batches; it must
+     *        be able to run more than one task at a time, since delivery can wait on it
+     * @throws IllegalArgumentException if a size is not positive or {@code lingerMillis} is negative
+     */
+    public ConversionProcessor(Executor executor, int maxBufferCapacity, int batchSize, long lingerMillis) {
+        super(executor, maxBufferCapacity);
+        if (batchSize < 1 || lingerMillis < 0) {
+            throw new IllegalArgumentException("Invalid batch size or linger: " + batchSize + ", " + lingerMillis);
+        }
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.pending = new ArrayList<>(batchSize);
+    }
+    
+    
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        lock.lock();
+        try {
+            if (this.subscription != null) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+        } finally {
+            lock.unlock();
+        }
+        subscription.request(batchSize);
+    }
+    
+    @Override
+    public void onNext(ConversionRequest request) {
+        lock.lock();
+        try {
+            pending.add(request);
+            if (pending.size() >= batchSize) {
+                flush();
+            } else if (pending.size() == 1) {
+                linger = scheduleLinger(batchNumber);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void onError(Throwable failure) {
+        lock.lock();
+        try {
+            flush();
+        } finally {
+            lock.unlock();
+        }
+        closeExceptionally(failure);
+    }
+    
+    @Override
+    public void onComplete() {
+        lock.lock();
+        try {
+            flush();
+        } finally {
+            lock.unlock();
+        }
+        close();
+    }
+    
+    
+    private ScheduledFuture<?> scheduleLinger(long batch) {
+        return ConversionExecutor.scheduler().schedule(
+            () -> getExecutor().execute(() -> flushLingering(batch)), lingerMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    // never waits for the lock: onNext may hold it while blocked in submit, so retry later
+    // instead. A retry cannot be cancelled by flush, so it only flushes its own batch.
+    private void flushLingering(long batch) {
+        if (!lock.tryLock()) {
+            scheduleLinger(batch);
+            return;
+        }
+        try {
+            if (batch == batchNumber) {
+                flush();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /** Converts and hands on the pending requests, then asks upstream for as many more. */
+    private void flush() {
+        if (linger != null) {
+            linger.cancel(false);
+            linger = null;
+        }
+        int count = pending.size();
+        if (count == 0) {
+            return;
+        }
+        for (ConversionResult result : ConversionLogic.convertBatch(pending)) {
+            submit(result);
+        }
+        pending.clear();
+        batchNumber++;
+        subscription.request(count);
+    }
+}
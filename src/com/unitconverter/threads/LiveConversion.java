@@ -0,0 +1,97 @@
+package com.unitconverter.threads;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Converts while the user types. Each edit calls {@link #restart()}; once edits pause for
+ * the delay, {@code snapshot} captures the current input on the EDT and the conversion it
+ * returns runs on a {@link ConversionExecutor}. Every edit bumps a sequence number, and a
+ * result is handed to {@code onResult} only if no edit came after the one it was computed
+ * for, so a slow conversion finishing late never overwrites a newer one. A conversion made
+ * stale this way is cancelled if it has not started yet.
+ *
+ * <p>All methods must be called on the EDT; the callbacks are run there too.
+ */
+public final class LiveConversion<T> {
+    public static final int DEFAULT_DELAY = 150;
+    
+    private final Supplier<Callable<T>> snapshot;
+    private final Consumer<T> onResult;
+    private final Consumer<Exception> onError;
+    private final ConversionExecutor executor;
+    private final Timer timer;
+    private long sequence;
+    private Future<?> inFlight;
+    
+    
+    public LiveConversion(int delayMillis, Supplier<Callable<T>> snapshot, Consumer<T> onResult,
+                          Consumer<Exception> onError) {
+        this(delayMillis, snapshot, onResult, onError, ConversionExecutor.getDefault());
+    }
+    
+    /**
+     * @param snapshot reads the input on the EDT and returns the work to run off it
+     * @throws IllegalArgumentException if {@code delayMillis} is negative
+     */
+    public LiveConversion(int delayMillis, Supplier<Callable<T>> snapshot, Consumer<T> onResult,
+                          Consumer<Exception> onError, ConversionExecutor executor) {
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException("Delay cannot be negative: " + delayMillis);
+        }
+        this.snapshot = snapshot;
+        this.onResult = onResult;
+        this.onError = onError;
+        this.executor = executor;
+        this.timer = new Timer(delayMillis, e -> fire());
+        timer.setRepeats(false);
+    }
+    
+    
+    /** Records an edit: outstanding results become stale and the delay starts over. */
+    public void restart() {
+        sequence++;
+        timer.restart();
+    }
+    
+    /** Drops the pending conversion and any result still to come, e.g. before an explicit convert. */
+    public void cancel() {
+        sequence++;
+        timer.stop();
+        cancelInFlight();
+    }
+    
+    private void fire() {
+        long current = sequence;
+        Callable<T> task = snapshot.get();
+        cancelInFlight();
+        inFlight = executor.submit(() -> {
+            try {
+                T result = task.call();
+                SwingUtilities.invokeLater(() -> {
+                    if (current == sequence) {
+                        onResult.accept(result);
+                    }
+                });
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> {
+                    if (current == sequence) {
+                        onError.accept(e);
+                    }
+                });
+            }
+            return null;
+        });
+    }
+    
+    private void cancelInFlight() {
+        if (inFlight != null) {
+            inFlight.cancel(false);
+            inFlight = null;
+        }
+    }
+}
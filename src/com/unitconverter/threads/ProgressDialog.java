@@ -0,0 +1,80 @@
+package com.unitconverter.threads;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Window;
+import java.util.concurrent.TimeUnit;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+/**
+ * The "Converting..." dialog for a background job. It is only built if the job is still
+ * running after a grace period, so quick jobs never flash a dialog. The bar follows the
+ * worker's {@code progress} property and stays indeterminate until the first report.
+ */
+final class ProgressDialog {
+    static final long DEFAULT_GRACE_MILLIS = 300;
+    
+    private ProgressDialog() {}
+    
+    
+    static void showAfterGrace(SwingWorker<?, ?> worker, Component parent, String message, long graceMillis) {
+        ConversionExecutor.scheduler().schedule(() -> SwingUtilities.invokeLater(() -> {
+            if (!worker.isDone()) {
+                show(worker, parent, message);
+            }
+        }), graceMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    private static void show(SwingWorker<?, ?> worker, Component parent, String message) {
+        Window owner = parent == null ? null : SwingUtilities.getWindowAncestor(parent);
+        if (owner == null && parent instanceof Window) {
+            owner = (Window) parent;
+        }
+        JDialog dialog = new JDialog(owner, "Converting...", JDialog.DEFAULT_MODALITY_TYPE);
+        dialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        dialog.setSize(300, 100);
+        dialog.setLocationRelativeTo(parent);
+        
+        JProgressBar progressBar = new JProgressBar(0, 100);
+        progressBar.setIndeterminate(worker.getProgress() == 0);
+        progressBar.setValue(worker.getProgress());
+        progressBar.setStringPainted(true);
+        progressBar.setString(message);
+        
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> {
+            if (worker.cancel(true)) {
+                dialog.dispose();
+            }
+        });
+        
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        panel.add(progressBar, BorderLayout.CENTER);
+        panel.add(cancelButton, BorderLayout.SOUTH);
+        dialog.add(panel);
+        
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                int progress = (Integer) evt.getNewValue();
+                progressBar.setIndeterminate(false);
+                progressBar.setValue(progress);
+                progressBar.setString(message + " " + progress + "%");
+            } else if ("state".equals(evt.getPropertyName())
+                    && SwingWorker.StateValue.DONE == evt.getNewValue()) {
+                dialog.dispose();
+            }
+        });
+        // the DONE event is delivered after isDone() turns true, so a job finishing from
+        // here on still closes the dialog through the listener
+        if (!worker.isDone()) {
+            dialog.setVisible(true);
+        }
+    }
+}
@@ -0,0 +1,627 @@
+package com.unitconverter.utils;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+/**
+ * Allocation-free double formatting into a caller-supplied {@code char[]}, {@link StringBuilder}
+ * or {@link ByteBuffer} (as ASCII).
+ *
+ * <p>Digits come from the shortest decimal that reads back as the same double (Schubfach,
+ * R. Giulietti). Fixed and scientific output rounds those digits half-up, which is what
+ * {@code String.format("%.nf")} and {@code "%.ne"} do. Between 2^53 and 2^63 the JDK
+ * prints the exact integer value, cut to at most 17 significant digits, and so does
+ * fixed and scientific output here; with that, results match below 2^63 (about 9.2e18).
+ * Above it the JDK sometimes prints more digits than the shortest, and results can differ.
+ * NaN and infinities are written as "NaN", "Infinity" and "-Infinity".
+ *
+ * <p>Overloads taking {@link NumberSymbols} write the same digits in a locale's notation,
+ * with its decimal separator, minus sign and digit grouping ("1.234,5", "12,34,567.8").
+ */
+public final class NumberFormatter {
+    /** Longest output of any method here, so a buffer of this size always fits. */
+    public static final int MAX_LENGTH = 640;
+    public static final int MAX_DECIMALS = 20;
+    
+    private static final int Q_MIN = -1074;
+    private static final long C_MIN = 1L << 52;
+    private static final int C_TINY = 3;
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+    private static final long MASK_63 = (1L << 63) - 1;
+    private static final double TWO_POW_53 = 0x1p53;
+    private static final double TWO_POW_63 = 0x1p63;
+    private static final long[] G = new long[2 * (K_MAX - K_MIN + 1)];
+    
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+    
+    static {
+        // g = floor(10^-k / 2^r) + 1 with 2^125 <= g < 2^126, split into 63-bit halves
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            int r = flog2pow10(-k) - 125;
+            BigInteger numerator = k <= 0 ? BigInteger.TEN.pow(-k) : BigInteger.ONE;
+            BigInteger denominator = k > 0 ? BigInteger.TEN.pow(k) : BigInteger.ONE;
+            if (r >= 0) {
+                denominator = denominator.shiftLeft(r);
+            } else {
+                numerator = numerator.shiftLeft(-r);
+            }
+            BigInteger g = numerator.divide(denominator).add(BigInteger.ONE);
+            G[2 * (k - K_MIN)] = g.shiftRight(63).longValue();
+            G[2 * (k - K_MIN) + 1] = g.longValue() & MASK_63;
+        }
+    }
+    
+    private NumberFormatter() {}
+    
+    
+    /** Writes {@code value} with exactly {@code decimals} fraction digits, like {@code "%.nf"}. */
+    public static int formatFixed(double value, int decimals, char[] dest, int offset) {
+        checkDecimals(decimals);
+        return fixed(value, decimals, false, SCRATCH.get(), dest, offset);
+    }
+    
+    public static String formatFixed(double value, int decimals) {
+        Scratch scratch = SCRATCH.get();
+        return new String(scratch.out, 0, formatFixed(value, decimals, scratch.out, 0));
+    }
+    
+    public static StringBuilder formatFixed(double value, int decimals, StringBuilder dest) {
+        Scratch scratch = SCRATCH.get();
+        return dest.append(scratch.out, 0, formatFixed(value, decimals, scratch.out, 0));
+    }
+    
+    public static ByteBuffer formatFixed(double value, int decimals, ByteBuffer dest) {
+        Scratch scratch = SCRATCH.get();
+        return put(dest, scratch.out, formatFixed(value, decimals, scratch.out, 0));
+    }
+    
+    public static int formatFixed(double value, int decimals, NumberSymbols symbols, char[] dest, int offset) {
+        checkDecimals(decimals);
+        Scratch scratch = SCRATCH.get();
+        return localize(scratch.out, fixed(value, decimals, false, scratch, scratch.out, 0), symbols, dest, offset);
+    }
+    
+    public static String formatFixed(double value, int decimals, NumberSymbols symbols) {
+        Scratch scratch = SCRATCH.get();
+        return new String(scratch.localized, 0, formatFixed(value, decimals, symbols, scratch.localized, 0));
+    }
+    
+    public static StringBuilder formatFixed(double value, int decimals, NumberSymbols symbols, StringBuilder dest) {
+        Scratch scratch = SCRATCH.get();
+        return dest.append(scratch.localized, 0, formatFixed(value, decimals, symbols, scratch.localized, 0));
+    }
+    
+    /**
+     * Writes {@code value} with at most {@code maxDecimals} fraction digits, dropping trailing
+     * zeros and a trailing point, like {@code new DecimalFormat("#.######")} for six.
+     */
+    public static int formatTrimmed(double value, int maxDecimals, char[] dest, int offset) {
+        checkDecimals(maxDecimals);
+        return fixed(value, maxDecimals, true, SCRATCH.get(), dest, offset);
+    }
+    
+    public static String formatTrimmed(double value, int maxDecimals) {
+        Scratch scratch = SCRATCH.get();
+        return new String(scratch.out, 0, formatTrimmed(value, maxDecimals, scratch.out, 0));
+    }
+    
+    public static StringBuilder formatTrimmed(double value, int maxDecimals, StringBuilder dest) {
+        Scratch scratch = SCRATCH.get();
+        return dest.append(scratch.out, 0, formatTrimmed(value, maxDecimals, scratch.out, 0));
+    }
+    
+    public static ByteBuffer formatTrimmed(double value, int maxDecimals, ByteBuffer dest) {
+        Scratch scratch = SCRATCH.get();
+        return put(dest, scratch.out, formatTrimmed(value, maxDecimals, scratch.out, 0));
+    }
+    
+    public static int formatTrimmed(double value, int maxDecimals, NumberSymbols symbols, char[] dest, int offset) {
+        checkDecimals(maxDecimals);
+        Scratch scratch = SCRATCH.get();
+        return localize(scratch.out, fixed(value, maxDecimals, true, scratch, scratch.out, 0), symbols, dest, offset);
+    }
+    
+    public static String formatTrimmed(double value, int maxDecimals, NumberSymbols symbols) {
+        Scratch scratch = SCRATCH.get();
+        return new String(scratch.localized, 0, formatTrimmed(value, maxDecimals, symbols, scratch.localized, 0));
+    }
+    
+    public static StringBuilder formatTrimmed(double value, int maxDecimals, NumberSymbols symbols,
+                                              StringBuilder dest) {
+        Scratch scratch = SCRATCH.get();
+        return dest.append(scratch.localized, 0, formatTrimmed(value, maxDecimals, symbols, scratch.localized, 0));
+    }
+    
+    /** Writes {@code value} as {@code d.ddde+XX} with {@code decimals} mantissa digits, like {@code "%.ne"}. */
+    public static int formatScientific(double value, int decimals, char[] dest, int offset) {
+        checkDecimals(decimals);
+        return scientific(value, decimals, SCRATCH.get(), dest, offset);
+    }
+    
+    public static StringBuilder formatScientific(double value, int decimals, StringBuilder dest) {
+        Scratch scratch = SCRATCH.get();
+        return dest.append(scratch.out, 0, formatScientific(value, decimals, scratch.out, 0));
+    }
+    
+    public static ByteBuffer formatScientific(double value, int decimals, ByteBuffer dest) {
+        Scratch scratch = SCRATCH.get();
+        return put(dest, scratch.out, formatScientific(value, decimals, scratch.out, 0));
+    }
+    
+    /**
+     * Writes the shortest decimal that parses back to {@code value}, laid out like
+     * {@link Double#toString(double)} ("0.1", "100.0", "1.0E-5", "1.2345E10").
+     */
+    public static int formatShortest(double value, char[] dest, int offset) {
+        return shortest(value, SCRATCH.get(), dest, offset);
+    }
+    
+    public static StringBuilder formatShortest(double value, StringBuilder dest) {
+        Scratch scratch = SCRATCH.get();
+        return dest.append(scratch.out, 0, formatShortest(value, scratch.out, 0));
+    }
+    
+    public static ByteBuffer formatShortest(double value, ByteBuffer dest) {
+        Scratch scratch = SCRATCH.get();
+        return put(dest, scratch.out, formatShortest(value, scratch.out, 0));
+    }
+    
+    /**
+     * Writes a conversion result for display: "0" for zero, {@code %.6e} below 0.000001 or
+     * above 1000000, otherwise 8, 6, 4 or 2 decimals depending on magnitude, with trailing
+     * zeros dropped except in the 2-decimal range.
+     */
+    public static int formatResult(double value, char[] dest, int offset) {
+        Scratch scratch = SCRATCH.get();
+        if (value == 0) {
+            dest[offset] = '0';
+            return offset + 1;
+        }
+        
+        double magnitude = Math.abs(value);
+        if (magnitude < 0.000001 || magnitude > 1000000) {
+            return scientific(value, 6, scratch, dest, offset);
+        }
+        if (magnitude < 0.1) {
+            return fixed(value, 8, true, scratch, dest, offset);
+        } else if (magnitude < 1) {
+            return fixed(value, 6, true, scratch, dest, offset);
+        } else if (magnitude < 100) {
+            return fixed(value, 4, true, scratch, dest, offset);
+        }
+        return fixed(value, 2, false, scratch, dest, offset);
+    }
+    
+    public static String formatResult(double value) {
+        Scratch scratch = SCRATCH.get();
+        return new String(scratch.out, 0, formatResult(value, scratch.out, 0));
+    }
+    
+    public static StringBuilder formatResult(double value, StringBuilder dest) {
+        Scratch scratch = SCRATCH.get();
+        return dest.append(scratch.out, 0, formatResult(value, scratch.out, 0));
+    }
+    
+    public static ByteBuffer formatResult(double value, ByteBuffer dest) {
+        Scratch scratch = SCRATCH.get();
+        return put(dest, scratch.out, formatResult(value, scratch.out, 0));
+    }
+    
+    public static int formatResult(double value, NumberSymbols symbols, char[] dest, int offset) {
+        Scratch scratch = SCRATCH.get();
+        return localize(scratch.out, formatResult(value, scratch.out, 0), symbols, dest, offset);
+    }
+    
+    public static String formatResult(double value, NumberSymbols symbols) {
+        Scratch scratch = SCRATCH.get();
+        return new String(scratch.localized, 0, formatResult(value, symbols, scratch.localized, 0));
+    }
+    
+    public static StringBuilder formatResult(double value, NumberSymbols symbols, StringBuilder dest) {
+        Scratch scratch = SCRATCH.get();
+        return dest.append(scratch.localized, 0, formatResult(value, symbols, scratch.localized, 0));
+    }
+    
+    
+    private static int fixed(double value, int decimals, boolean trim, Scratch scratch, char[] dest, int offset) {
+        if (!Double.isFinite(value)) {
+            return special(value, dest, offset);
+        }
+        
+        int pos = offset;
+        if (Double.doubleToRawLongBits(value) < 0) {
+            dest[pos++] = '-';
+        }
+        if (value == 0) {
+            scratch.count = 0;
+            scratch.point = 0;
+        } else {
+            formatDigits(Math.abs(value), scratch);
+            round(scratch, scratch.point + decimals);
+        }
+        
+        char[] digits = scratch.digits;
+        int count = scratch.count;
+        int point = scratch.point;
+        if (point <= 0) {
+            dest[pos++] = '0';
+        } else {
+            for (int i = 0; i < point; i++) {
+                dest[pos++] = i < count ? digits[i] : '0';
+            }
+        }
+        
+        if (decimals > 0) {
+            int dot = pos;
+            dest[pos++] = '.';
+            for (int i = point; i < point + decimals; i++) {
+                dest[pos++] = i >= 0 && i < count ? digits[i] : '0';
+            }
+            if (trim) {
+                while (dest[pos - 1] == '0') {
+                    pos--;
+                }
+                if (pos - 1 == dot) {
+                    pos--;
+                }
+            }
+        }
+        return pos;
+    }
+    
+    private static int scientific(double value, int decimals, Scratch scratch, char[] dest, int offset) {
+        if (!Double.isFinite(value)) {
+            return special(value, dest, offset);
+        }
+        
+        int pos = offset;
+        if (Double.doubleToRawLongBits(value) < 0) {
+            dest[pos++] = '-';
+        }
+        
+        int exponent = 0;
+        char[] digits = scratch.digits;
+        if (value == 0) {
+            scratch.count = 0;
+        } else {
+            formatDigits(Math.abs(value), scratch);
+            round(scratch, decimals + 1);
+            exponent = scratch.point - 1;
+        }
+        
+        int count = scratch.count;
+        dest[pos++] = count > 0 ? digits[0] : '0';
+        if (decimals > 0) {
+            dest[pos++] = '.';
+            for (int i = 1; i <= decimals; i++) {
+                dest[pos++] = i < count ? digits[i] : '0';
+            }
+        }
+        
+        dest[pos++] = 'e';
+        dest[pos++] = exponent < 0 ? '-' : '+';
+        int magnitude = Math.abs(exponent);
+        if (magnitude >= 100) {
+            dest[pos++] = (char) ('0' + magnitude / 100);
+        }
+        dest[pos++] = (char) ('0' + magnitude / 10 % 10);
+        dest[pos++] = (char) ('0' + magnitude % 10);
+        return pos;
+    }
+    
+    private static int shortest(double value, Scratch scratch, char[] dest, int offset) {
+        if (!Double.isFinite(value)) {
+            return special(value, dest, offset);
+        }
+        
+        int pos = offset;
+        if (Double.doubleToRawLongBits(value) < 0) {
+            dest[pos++] = '-';
+        }
+        if (value == 0) {
+            dest[pos++] = '0';
+            dest[pos++] = '.';
+            dest[pos++] = '0';
+            return pos;
+        }
+        
+        decimal(Math.abs(value), scratch);
+        char[] digits = scratch.digits;
+        int count = scratch.count;
+        int point = scratch.point;
+        
+        if (point > -3 && point <= 7) {
+            if (point <= 0) {
+                dest[pos++] = '0';
+                dest[pos++] = '.';
+                for (int i = point; i < 0; i++) {
+                    dest[pos++] = '0';
+                }
+                for (int i = 0; i < count; i++) {
+                    dest[pos++] = digits[i];
+                }
+            } else {
+                for (int i = 0; i < point; i++) {
+                    dest[pos++] = i < count ? digits[i] : '0';
+                }
+                dest[pos++] = '.';
+                if (count <= point) {
+                    dest[pos++] = '0';
+                }
+                for (int i = point; i < count; i++) {
+                    dest[pos++] = digits[i];
+                }
+            }
+            return pos;
+        }
+        
+        dest[pos++] = digits[0];
+        dest[pos++] = '.';
+        if (count == 1) {
+            dest[pos++] = '0';
+        }
+        for (int i = 1; i < count; i++) {
+            dest[pos++] = digits[i];
+        }
+        dest[pos++] = 'E';
+        int exponent = point - 1;
+        if (exponent < 0) {
+            dest[pos++] = '-';
+            exponent = -exponent;
+        }
+        if (exponent >= 100) {
+            dest[pos++] = (char) ('0' + exponent / 100);
+        }
+        if (exponent >= 10) {
+            dest[pos++] = (char) ('0' + exponent / 10 % 10);
+        }
+        dest[pos++] = (char) ('0' + exponent % 10);
+        return pos;
+    }
+    
+    /**
+     * Copies plain output to {@code dest} in the notation of {@code symbols}, grouping the
+     * integer digits and replacing the point and minus signs.
+     */
+    private static int localize(char[] plain, int length, NumberSymbols symbols, char[] dest, int offset) {
+        int pos = offset;
+        int i = 0;
+        if (length > 0 && plain[0] == '-') {
+            dest[pos++] = symbols.getMinusSign();
+            i = 1;
+        }
+        
+        int digitsEnd = i;
+        while (digitsEnd < length && plain[digitsEnd] >= '0' && plain[digitsEnd] <= '9') {
+            digitsEnd++;
+        }
+        int primary = symbols.getPrimaryGroup();
+        int secondary = symbols.getSecondaryGroup();
+        char grouping = symbols.getGroupingSeparator();
+        for (; i < digitsEnd; i++) {
+            dest[pos++] = plain[i];
+            int after = digitsEnd - i - 1;
+            if (primary > 0 && after > 0 && (after == primary || after > primary && (after - primary) % secondary == 0)) {
+                dest[pos++] = grouping;
+            }
+        }
+        
+        char decimal = symbols.getDecimalSeparator();
+        char minus = symbols.getMinusSign();
+        for (; i < length; i++) {
+            char c = plain[i];
+            dest[pos++] = c == '.' ? decimal : c == '-' ? minus : c;
+        }
+        return pos;
+    }
+    
+    private static int special(double value, char[] dest, int offset) {
+        String text = Double.isNaN(value) ? "NaN" : value > 0 ? "Infinity" : "-Infinity";
+        text.getChars(0, text.length(), dest, offset);
+        return offset + text.length();
+    }
+    
+    /**
+     * Keeps the first {@code keep} digits, rounding half-up on the next one. A carry out
+     * of the first digit moves the decimal point; {@code keep <= 0} may round to nothing.
+     */
+    private static void round(Scratch scratch, int keep) {
+        char[] digits = scratch.digits;
+        if (keep >= scratch.count) {
+            return;
+        }
+        if (keep < 0) {
+            scratch.count = 0;
+            return;
+        }
+        
+        boolean up = digits[keep] >= '5';
+        scratch.count = keep;
+        if (!up) {
+            return;
+        }
+        
+        int i = keep - 1;
+        while (i >= 0 && digits[i] == '9') {
+            digits[i--] = '0';
+        }
+        if (i >= 0) {
+            digits[i]++;
+        } else {
+            digits[0] = '1';
+            for (int j = 1; j <= keep; j++) {
+                digits[j] = '0';
+            }
+            scratch.count = keep + 1;
+            scratch.point++;
+        }
+    }
+    
+    
+    /**
+     * Writes the digits {@code java.util.Formatter} starts from for a positive finite
+     * {@code value}: the exact integer for 2^53 <= value < 2^63, with the 0, 1 or 2 digits
+     * below the binary precision rounded off half-up, and the shortest digits otherwise.
+     */
+    private static void formatDigits(double value, Scratch scratch) {
+        if (value < TWO_POW_53 || value >= TWO_POW_63) {
+            decimal(value, scratch);
+            return;
+        }
+        
+        long f = (long) value;
+        int binaryExponent = Math.getExponent(value);
+        int e = binaryExponent >= 61 ? 2 : binaryExponent >= 58 ? 1 : 0;
+        if (e > 0) {
+            long pow10 = e == 2 ? 100 : 10;
+            long residue = f % pow10;
+            f /= pow10;
+            if (residue >= pow10 >> 1) {
+                f++;
+            }
+        }
+        digits(f, e, scratch);
+    }
+    
+    /**
+     * Writes the shortest decimal digits of a positive finite {@code value} into
+     * {@code scratch.digits}, without trailing zeros, so that value = 0.d1d2... * 10^point.
+     */
+    private static void decimal(double value, Scratch scratch) {
+        long bits = Double.doubleToRawLongBits(value);
+        long t = bits & (C_MIN - 1);
+        int bq = (int) (bits >>> 52);
+        
+        long f;
+        int e;
+        if (bq != 0) {
+            int mq = 1075 - bq;
+            long c = C_MIN | t;
+            if (0 < mq && mq < 53 && (c >> mq) << mq == c) {
+                f = c >> mq;
+                e = 0;
+            } else {
+                f = toDecimal(-mq, c, scratch);
+                e = scratch.exponent;
+            }
+        } else if (t < C_TINY) {
+            f = toDecimal(Q_MIN, 10 * t, scratch);
+            e = scratch.exponent - 1;
+        } else {
+            f = toDecimal(Q_MIN, t, scratch);
+            e = scratch.exponent;
+        }
+        
+        digits(f, e, scratch);
+    }
+    
+    /** Writes f * 10^e, f > 0, into {@code scratch} without trailing zeros. */
+    private static void digits(long f, int e, Scratch scratch) {
+        while (f % 10 == 0) {
+            f /= 10;
+            e++;
+        }
+        int count = 0;
+        for (long rest = f; rest > 0; rest /= 10) {
+            count++;
+        }
+        char[] digits = scratch.digits;
+        for (int i = count - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + f % 10);
+            f /= 10;
+        }
+        scratch.count = count;
+        scratch.point = count + e;
+    }
+    
+    /** Schubfach: the shortest f * 10^exponent in the rounding interval of c * 2^q. */
+    private static long toDecimal(int q, long c, Scratch scratch) {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != C_MIN || q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+        
+        long g1 = G[2 * (k - K_MIN)];
+        long g0 = G[2 * (k - K_MIN) + 1];
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+        
+        long s = vb >> 2;
+        if (s >= 100) {
+            long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                scratch.exponent = k;
+                return upin ? sp10 : tp10;
+            }
+        }
+        
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        scratch.exponent = k;
+        if (uin != win) {
+            return uin ? s : t;
+        }
+        long cmp = vb - (s + t << 1);
+        return cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t;
+    }
+    
+    private static long rop(long g1, long g0, long cp) {
+        long x1 = Math.multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = Math.multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+    
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+    
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+    
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+    
+    
+    private static void checkDecimals(int decimals) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("Decimals must be between 0 and " + MAX_DECIMALS + ": " + decimals);
+        }
+    }
+    
+    private static ByteBuffer put(ByteBuffer dest, char[] chars, int length) {
+        for (int i = 0; i < length; i++) {
+            dest.put((byte) chars[i]);
+        }
+        return dest;
+    }
+    
+    
+    private static final class Scratch {
+        final char[] digits = new char[24];
+        final char[] out = new char[MAX_LENGTH];
+        final char[] localized = new char[MAX_LENGTH];
+        int count;
+        int point;
+        int exponent;
+    }
+}
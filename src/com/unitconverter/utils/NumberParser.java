@@ -0,0 +1,398 @@
+package com.unitconverter.utils;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-pass decimal parsing of {@link CharSequence} or ASCII byte ranges that reports
+ * failure through a status code instead of an exception.
+ *
+ * <p>Accepts what {@link Double#parseDouble} accepts: surrounding whitespace, a sign,
+ * digits with an optional point and exponent, "NaN", "Infinity" and a trailing
+ * {@code f}/{@code d} suffix. Up to 19 significant digits are turned into a double with
+ * Clinger's exact fast path or the Eisel-Lemire algorithm; the rare inputs those cannot
+ * decide (and hexadecimal literals) fall back to {@code Double.parseDouble}. Results are
+ * identical to it.
+ *
+ * <p>Overloads taking {@link NumberSymbols} read the same syntax in a locale's notation,
+ * such as "1.234,56" or "12,34,567.8", in the same single pass.
+ */
+public final class NumberParser {
+    public static final int OK = 0;
+    public static final int EMPTY = 1;
+    public static final int INVALID = 2;
+    
+    private static final int MIN_EXPONENT = -342;
+    private static final int MAX_EXPONENT = 308;
+    private static final long[] POWERS_HI = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+    private static final long[] POWERS_LO = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+    private static final double[] EXACT_POWERS = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final BigInteger MASK_64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+    
+    static {
+        // 128-bit mantissas of 10^q: 5^q truncated for q >= 0, 2^b / 5^-q rounded up for q < 0
+        for (int q = MIN_EXPONENT; q <= MAX_EXPONENT; q++) {
+            BigInteger mantissa;
+            if (q >= 0) {
+                mantissa = BigInteger.valueOf(5).pow(q);
+                int shift = mantissa.bitLength() - 128;
+                mantissa = shift > 0 ? mantissa.shiftRight(shift) : mantissa.shiftLeft(-shift);
+            } else {
+                BigInteger power = BigInteger.valueOf(5).pow(-q);
+                int z = power.bitLength();
+                int b = q >= -27 ? z + 127 : 2 * z + 128;
+                mantissa = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+                while (mantissa.bitLength() > 128) {
+                    mantissa = mantissa.shiftRight(1);
+                }
+            }
+            POWERS_HI[q - MIN_EXPONENT] = mantissa.shiftRight(64).longValue();
+            POWERS_LO[q - MIN_EXPONENT] = mantissa.and(MASK_64).longValue();
+        }
+    }
+    
+    private NumberParser() {}
+    
+    
+    /**
+     * Parses {@code text[start..end)} and stores the value in {@code result[index]}.
+     *
+     * @return {@link #OK}, {@link #EMPTY} for blank input or {@link #INVALID}; on failure
+     *         {@code result} is left untouched
+     */
+    public static int parse(CharSequence text, int start, int end, double[] result, int index) {
+        return scan(text, null, start, end, NumberSymbols.PLAIN, result, index);
+    }
+    
+    public static int parse(CharSequence text, int start, int end, NumberSymbols symbols,
+                            double[] result, int index) {
+        return scan(text, null, start, end, symbols, result, index);
+    }
+    
+    public static int parse(CharSequence text, double[] result) {
+        return parse(text, NumberSymbols.PLAIN, result);
+    }
+    
+    public static int parse(CharSequence text, NumberSymbols symbols, double[] result) {
+        return text == null ? EMPTY : scan(text, null, 0, text.length(), symbols, result, 0);
+    }
+    
+    /** Parses ASCII {@code bytes[start..end)}, e.g. a field of a CSV line read as bytes. */
+    public static int parse(byte[] bytes, int start, int end, double[] result, int index) {
+        return scan(null, bytes, start, end, NumberSymbols.PLAIN, result, index);
+    }
+    
+    /** Parses Latin-1 {@code bytes[start..end)} in the notation of {@code symbols}. */
+    public static int parse(byte[] bytes, int start, int end, NumberSymbols symbols, double[] result, int index) {
+        return scan(null, bytes, start, end, symbols, result, index);
+    }
+    
+    /** Returns the value of {@code text}, or {@code defaultValue} if it is not a number. */
+    public static double parseOrDefault(CharSequence text, double defaultValue) {
+        double[] result = {defaultValue};
+        parse(text, result);
+        return result[0];
+    }
+    
+    /** Checks {@code text} without converting it. */
+    public static boolean isValid(CharSequence text) {
+        return isValid(text, NumberSymbols.PLAIN);
+    }
+    
+    public static boolean isValid(CharSequence text, NumberSymbols symbols) {
+        return text != null && scan(text, null, 0, text.length(), symbols, null, 0) == OK;
+    }
+    
+    /**
+     * Rewrites {@code text} in plain Java syntax ("1.234,5" becomes "1234.5"), e.g. for
+     * {@code new BigDecimal(...)}; returns null if it is not a number in that notation.
+     */
+    public static String toPlain(CharSequence text, NumberSymbols symbols) {
+        if (!isValid(text, symbols)) {
+            return null;
+        }
+        return plain(text, null, 0, text.length(), symbols).trim();
+    }
+    
+    /**
+     * Parses the {@code delimiter}-separated fields of {@code line} into {@code result}
+     * starting at {@code index}.
+     *
+     * @return the number of fields parsed, or {@code -(field + 1)} for the first field
+     *         that is blank or not a number
+     */
+    public static int parseFields(CharSequence line, char delimiter, double[] result, int index) {
+        return parseFields(line, delimiter, NumberSymbols.PLAIN, result, index);
+    }
+    
+    /**
+     * Parses delimited fields in the notation of {@code symbols}, e.g. "1.234,5;7,25" with
+     * {@link NumberSymbols#EUROPEAN} and ';'.
+     *
+     * @throws IllegalArgumentException if {@code delimiter} is one of the notation's separators
+     */
+    public static int parseFields(CharSequence line, char delimiter, NumberSymbols symbols,
+                                  double[] result, int index) {
+        if (delimiter == symbols.getDecimalSeparator() || symbols.isGroupingSeparator(delimiter)) {
+            throw new IllegalArgumentException("Delimiter '" + delimiter + "' is also a separator in " + symbols);
+        }
+        int fieldStart = 0;
+        int field = 0;
+        int length = line.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || line.charAt(i) == delimiter) {
+                if (scan(line, null, fieldStart, i, symbols, result, index + field) != OK) {
+                    return -(field + 1);
+                }
+                field++;
+                fieldStart = i + 1;
+            }
+        }
+        return field;
+    }
+    
+    
+    private static int scan(CharSequence text, byte[] bytes, int start, int end, NumberSymbols symbols,
+                            double[] result, int index) {
+        int i = start;
+        while (i < end && at(text, bytes, i) <= ' ') {
+            i++;
+        }
+        while (end > i && at(text, bytes, end - 1) <= ' ') {
+            end--;
+        }
+        if (i == end) {
+            return EMPTY;
+        }
+        
+        boolean negative = false;
+        char c = at(text, bytes, i);
+        if (c == '+' || symbols.isMinusSign(c)) {
+            negative = c != '+';
+            if (++i == end) {
+                return INVALID;
+            }
+            c = at(text, bytes, i);
+        }
+        
+        if (c == 'N' || c == 'I') {
+            String word = c == 'N' ? "NaN" : "Infinity";
+            if (end - i != word.length() || !matches(text, bytes, i, word)) {
+                return INVALID;
+            }
+            if (result != null) {
+                result[index] = c == 'N' ? Double.NaN
+                    : negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            }
+            return OK;
+        }
+        if (c == '0' && i + 1 < end && (at(text, bytes, i + 1) | 0x20) == 'x') {
+            return fallback(text, bytes, start, end, symbols, result, index);
+        }
+        
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigits = false;
+        boolean truncated = false;
+        int run = 0;
+        int groups = 0;
+        
+        for (; i < end; i++) {
+            c = at(text, bytes, i);
+            if (c >= '0' && c <= '9') {
+                anyDigits = true;
+                run++;
+                if (digits < 19) {
+                    if (mantissa != 0 || c != '0') {
+                        mantissa = mantissa * 10 + (c - '0');
+                        digits++;
+                    }
+                } else {
+                    exponent++;
+                    truncated |= c != '0';
+                }
+            } else if (symbols.isGroupingSeparator(c)) {
+                // first group 1..secondary digits, later groups exactly secondary
+                if (groups == 0 ? run < 1 || run > symbols.getSecondaryGroup() : run != symbols.getSecondaryGroup()) {
+                    return INVALID;
+                }
+                groups++;
+                run = 0;
+            } else {
+                break;
+            }
+        }
+        if (groups > 0 && run != symbols.getPrimaryGroup()) {
+            return INVALID;
+        }
+        if (i < end && at(text, bytes, i) == symbols.getDecimalSeparator()) {
+            for (i++; i < end && (c = at(text, bytes, i)) >= '0' && c <= '9'; i++) {
+                anyDigits = true;
+                if (digits < 19) {
+                    if (mantissa != 0 || c != '0') {
+                        mantissa = mantissa * 10 + (c - '0');
+                        digits++;
+                    }
+                    exponent--;
+                } else {
+                    truncated |= c != '0';
+                }
+            }
+        }
+        if (!anyDigits) {
+            return INVALID;
+        }
+        
+        if (i < end && (at(text, bytes, i) | 0x20) == 'e') {
+            if (++i == end) {
+                return INVALID;
+            }
+            boolean negativeExponent = false;
+            c = at(text, bytes, i);
+            if (c == '-' || c == '+') {
+                negativeExponent = c == '-';
+                i++;
+            }
+            int explicit = 0;
+            int exponentStart = i;
+            for (; i < end && (c = at(text, bytes, i)) >= '0' && c <= '9'; i++) {
+                if (explicit < 100000) {
+                    explicit = explicit * 10 + (c - '0');
+                }
+            }
+            if (i == exponentStart) {
+                return INVALID;
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (i < end && "fFdD".indexOf(at(text, bytes, i)) >= 0) {
+            i++;
+        }
+        if (i != end) {
+            return INVALID;
+        }
+        if (result == null) {
+            return OK;
+        }
+        
+        long bits = toBits(mantissa, exponent);
+        if (truncated && bits != toBits(mantissa + 1, exponent)) {
+            bits = -1;
+        }
+        if (bits < 0) {
+            return fallback(text, bytes, start, end, symbols, result, index);
+        }
+        double value = Double.longBitsToDouble(bits);
+        result[index] = negative ? -value : value;
+        return OK;
+    }
+    
+    /** Returns the bits of the double nearest to mantissa * 10^exponent (mantissa unsigned), or -1. */
+    private static long toBits(long mantissa, int exponent) {
+        if (mantissa == 0 || exponent < MIN_EXPONENT) {
+            return 0;
+        }
+        if (exponent > MAX_EXPONENT) {
+            return Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        }
+        if (mantissa >= 0 && mantissa <= 1L << 53 && exponent >= -22 && exponent <= 22) {
+            double value = exponent >= 0 ? mantissa * EXACT_POWERS[exponent] : mantissa / EXACT_POWERS[-exponent];
+            return Double.doubleToRawLongBits(value);
+        }
+        return eiselLemire(mantissa, exponent);
+    }
+    
+    private static long eiselLemire(long mantissa, int exponent) {
+        int zeros = Long.numberOfLeadingZeros(mantissa);
+        mantissa <<= zeros;
+        long binaryExponent = ((217706L * exponent) >> 16) + 64 + 1023 - zeros;
+        
+        int power = exponent - MIN_EXPONENT;
+        long hi = unsignedMultiplyHigh(mantissa, POWERS_HI[power]);
+        long lo = mantissa * POWERS_HI[power];
+        if ((hi & 0x1FF) == 0x1FF && Long.compareUnsigned(lo + mantissa, mantissa) < 0) {
+            long extraHi = unsignedMultiplyHigh(mantissa, POWERS_LO[power]);
+            long extraLo = mantissa * POWERS_LO[power];
+            long mergedHi = hi;
+            long mergedLo = lo + extraHi;
+            if (Long.compareUnsigned(mergedLo, lo) < 0) {
+                mergedHi++;
+            }
+            if ((mergedHi & 0x1FF) == 0x1FF && mergedLo + 1 == 0
+                    && Long.compareUnsigned(extraLo + mantissa, mantissa) < 0) {
+                return -1;
+            }
+            hi = mergedHi;
+            lo = mergedLo;
+        }
+        
+        long top = hi >>> 63;
+        long bits = hi >>> (top + 9);
+        binaryExponent -= 1 ^ top;
+        if (lo == 0 && (hi & 0x1FF) == 0 && (bits & 3) == 1) {
+            return -1;
+        }
+        
+        bits += bits & 1;
+        bits >>>= 1;
+        if (bits >>> 53 > 0) {
+            bits >>>= 1;
+            binaryExponent++;
+        }
+        if (binaryExponent <= 0 || binaryExponent >= 0x7FF) {
+            return -1;
+        }
+        return binaryExponent << 52 | bits & ((1L << 52) - 1);
+    }
+    
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+    
+    private static int fallback(CharSequence text, byte[] bytes, int start, int end, NumberSymbols symbols,
+                                double[] result, int index) {
+        try {
+            double value = Double.parseDouble(plain(text, bytes, start, end, symbols));
+            if (result != null) {
+                result[index] = value;
+            }
+            return OK;
+        } catch (NumberFormatException e) {
+            return INVALID;
+        }
+    }
+    
+    
+    private static String plain(CharSequence text, byte[] bytes, int start, int end, NumberSymbols symbols) {
+        if (symbols == NumberSymbols.PLAIN) {
+            return text != null
+                ? text.subSequence(start, end).toString()
+                : new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+        StringBuilder plain = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = at(text, bytes, i);
+            if (!symbols.isGroupingSeparator(c)) {
+                plain.append(c == symbols.getDecimalSeparator() ? '.' : symbols.isMinusSign(c) ? '-' : c);
+            }
+        }
+        return plain.toString();
+    }
+    
+    private static char at(CharSequence text, byte[] bytes, int index) {
+        return text != null ? text.charAt(index) : (char) (bytes[index] & 0xFF);
+    }
+    
+    private static boolean matches(CharSequence text, byte[] bytes, int index, String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (at(text, bytes, index + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
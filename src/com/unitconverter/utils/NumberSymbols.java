@@ -0,0 +1,173 @@
+package com.unitconverter.utils;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The decimal separator, digit grouping and minus sign of a number notation, used by
+ * {@link NumberParser} and {@link NumberFormatter} in place of {@code NumberFormat}.
+ *
+ * <p>Grouping is described by two sizes: the group next to the decimal separator has
+ * {@code primaryGroup} digits and every group before it {@code secondaryGroup}, so
+ * "1,234,567.8" is 3/3 and Indian "12,34,567.8" is 3/2. When parsing, grouping is
+ * optional but must be in the right places if present, and a locale with a space for
+ * grouping accepts any of the usual space characters.
+ */
+public final class NumberSymbols {
+    public static final String LOCALE_PROPERTY = "unitconverter.locale";
+    
+    /** Java literal syntax: '.' decimals and no grouping, as in {@link Double#parseDouble}. */
+    public static final NumberSymbols PLAIN = new NumberSymbols('.', '\0', 0, 0, '-');
+    public static final NumberSymbols ENGLISH = new NumberSymbols('.', ',', 3, 3, '-');
+    /** "1.234,56", used across most of continental Europe and South America. */
+    public static final NumberSymbols EUROPEAN = new NumberSymbols(',', '.', 3, 3, '-');
+    /** "1 234,56" with a narrow no-break space, used in France, Scandinavia and Eastern Europe. */
+    public static final NumberSymbols FRENCH = new NumberSymbols(',', '\u202F', 3, 3, '-');
+    public static final NumberSymbols SWISS = new NumberSymbols('.', '\u2019', 3, 3, '-');
+    public static final NumberSymbols INDIAN = new NumberSymbols('.', ',', 3, 2, '-');
+    
+    private static final Map<String, NumberSymbols> TABLE = new ConcurrentHashMap<>();
+    private static final Map<Locale, NumberSymbols> DERIVED = new ConcurrentHashMap<>();
+    
+    static {
+        for (String language : "de it es nl pt da id tr el ro hr sl sr is vi".split(" ")) {
+            TABLE.put(language, EUROPEAN);
+        }
+        for (String language : "fr ru pl cs sk sv fi nb no nn uk hu bg lt lv et be kk".split(" ")) {
+            TABLE.put(language, FRENCH);
+        }
+        for (String language : "en zh ja ko th he".split(" ")) {
+            TABLE.put(language, ENGLISH);
+        }
+        TABLE.put("de_CH", SWISS);
+        TABLE.put("it_CH", SWISS);
+        TABLE.put("de_LI", SWISS);
+        TABLE.put("es_MX", ENGLISH);
+        TABLE.put("es_US", ENGLISH);
+        TABLE.put("_IN", INDIAN);
+    }
+    
+    private final char decimalSeparator;
+    private final char groupingSeparator;
+    private final int primaryGroup;
+    private final int secondaryGroup;
+    private final char minusSign;
+    
+    
+    /**
+     * Creates a notation; a {@code primaryGroup} of 0 disables grouping.
+     *
+     * @throws IllegalArgumentException if a separator is a digit, the two separators are
+     *         the same, or a group size is outside 0..9 (or 1..9 for the secondary size
+     *         when grouping is on)
+     */
+    public NumberSymbols(char decimalSeparator, char groupingSeparator, int primaryGroup, int secondaryGroup,
+                         char minusSign) {
+        if (Character.isDigit(decimalSeparator) || Character.isDigit(groupingSeparator)) {
+            throw new IllegalArgumentException("Separators cannot be digits");
+        }
+        if (primaryGroup > 0 && decimalSeparator == groupingSeparator) {
+            throw new IllegalArgumentException("Decimal and grouping separators must differ: '" + decimalSeparator + "'");
+        }
+        if (primaryGroup < 0 || primaryGroup > 9 || secondaryGroup < (primaryGroup > 0 ? 1 : 0) || secondaryGroup > 9) {
+            throw new IllegalArgumentException("Invalid group sizes: " + primaryGroup + "/" + secondaryGroup);
+        }
+        this.decimalSeparator = decimalSeparator;
+        this.groupingSeparator = groupingSeparator;
+        this.primaryGroup = primaryGroup;
+        this.secondaryGroup = secondaryGroup;
+        this.minusSign = minusSign;
+    }
+    
+    
+    /**
+     * Returns the notation of {@code locale} from a built-in table of common locales,
+     * deriving it once from {@link DecimalFormatSymbols} for any other locale.
+     */
+    public static NumberSymbols forLocale(Locale locale) {
+        NumberSymbols symbols = TABLE.get(locale.getLanguage() + "_" + locale.getCountry());
+        if (symbols == null) {
+            symbols = TABLE.get("_" + locale.getCountry());
+        }
+        if (symbols == null) {
+            symbols = TABLE.get(locale.getLanguage());
+        }
+        if (symbols == null) {
+            symbols = DERIVED.computeIfAbsent(locale, NumberSymbols::derive);
+        }
+        return symbols;
+    }
+    
+    /**
+     * Returns the notation for {@code -Dunitconverter.locale=<language tag>} if set,
+     * otherwise for the default formatting locale.
+     */
+    public static NumberSymbols getDefault() {
+        String tag = System.getProperty(LOCALE_PROPERTY);
+        return forLocale(tag != null && !tag.trim().isEmpty()
+            ? Locale.forLanguageTag(tag.trim())
+            : Locale.getDefault(Locale.Category.FORMAT));
+    }
+    
+    private static NumberSymbols derive(Locale locale) {
+        DecimalFormatSymbols format = DecimalFormatSymbols.getInstance(locale);
+        char decimal = format.getDecimalSeparator();
+        char grouping = format.getGroupingSeparator();
+        if (Character.isDigit(decimal) || Character.isDigit(grouping) || decimal == grouping) {
+            return ENGLISH;
+        }
+        return new NumberSymbols(decimal, grouping, 3, 3, format.getMinusSign());
+    }
+    
+    
+    public char getDecimalSeparator() {
+        return decimalSeparator;
+    }
+    
+    public char getGroupingSeparator() {
+        return groupingSeparator;
+    }
+    
+    public int getPrimaryGroup() {
+        return primaryGroup;
+    }
+    
+    public int getSecondaryGroup() {
+        return secondaryGroup;
+    }
+    
+    public char getMinusSign() {
+        return minusSign;
+    }
+    
+    public boolean isGrouping() {
+        return primaryGroup > 0;
+    }
+    
+    
+    boolean isGroupingSeparator(char c) {
+        if (primaryGroup == 0) {
+            return false;
+        }
+        if (c == groupingSeparator) {
+            return true;
+        }
+        if (Character.isSpaceChar(groupingSeparator)) {
+            return c == ' ' || c == '\u00A0' || c == '\u202F';
+        }
+        return groupingSeparator == '\u2019' && c == '\'';
+    }
+    
+    boolean isMinusSign(char c) {
+        return c == '-' || c == minusSign;
+    }
+    
+    
+    @Override
+    public String toString() {
+        return "NumberSymbols[decimal='" + decimalSeparator + "', grouping='" + groupingSeparator
+            + "', groups=" + primaryGroup + "/" + secondaryGroup + "]";
+    }
+}
@@ -108,10 +108,29 @@ public class StringUtils {
     
     
     public static boolean isDecimal(String str) {
+        return isDecimal(str, NumberSymbols.PLAIN);
+    }
+    
+    /** Checks for an optionally negative decimal such as "-1.234,56" or "12,34,567.8" in the given notation. */
+    public static boolean isDecimal(String str, NumberSymbols symbols) {
         if (isNullOrEmpty(str)) {
             return false;
         }
-        return str.matches("-?\\d+(\\.\\d+)?");
+        int start = symbols.isMinusSign(str.charAt(0)) ? 1 : 0;
+        if (start == str.length() || !isAsciiDigit(str.charAt(start)) || !isAsciiDigit(str.charAt(str.length() - 1))) {
+            return false;
+        }
+        for (int i = start; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (!isAsciiDigit(c) && c != symbols.getDecimalSeparator() && !symbols.isGroupingSeparator(c)) {
+                return false;
+            }
+        }
+        return NumberParser.isValid(str, symbols);
+    }
+    
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
     }
     
     
@@ -0,0 +1,45 @@
+package com.unitconverter;
+
+import com.unitconverter.exceptions.InvalidUnitException;
+import com.unitconverter.models.ConversionRequest;
+
+/**
+ * Regression checks for {@link QueryParser} unit matching. Run with
+ * {@code java -cp <classes> com.unitconverter.QueryParserCheck}; it exits with an
+ * {@code AssertionError} on the first query that resolves differently.
+ */
+public class QueryParserCheck {
+    public static void main(String[] args) throws InvalidUnitException {
+        QueryParser parser = QueryParser.getDefault();
+        
+        expect(parser, "3 KM to m", "Kilometer", "Meter");
+        expect(parser, "2 KG in lb", "Kilogram", "Pound");
+        expect(parser, "1 Mg to kg", "Megagram", "Kilogram");
+        expect(parser, "1 ML to L", "Megaliter", "Liter");
+        expect(parser, "5 ft 3 in to cm", "Foot", "Centimeter");
+        
+        reject(parser, "1 MG to g");
+        reject(parser, "1 k to C");
+        reject(parser, "5 C 3 K to C");
+        System.out.println("QueryParser checks passed");
+    }
+    
+    private static void expect(QueryParser parser, String query, String from, String to)
+            throws InvalidUnitException {
+        ConversionRequest request = parser.parse(query);
+        if (!request.getFromUnit().equals(from) || !request.getToUnit().equals(to)) {
+            throw new AssertionError(query + ": expected " + from + " -> " + to + ", got "
+                + request.getFromUnit() + " -> " + request.getToUnit());
+        }
+    }
+    
+    private static void reject(QueryParser parser, String query) {
+        try {
+            ConversionRequest request = parser.parse(query);
+            throw new AssertionError(query + ": expected an error, got "
+                + request.getFromUnit() + " -> " + request.getToUnit());
+        } catch (InvalidUnitException expected) {
+            // rejected as it should be
+        }
+    }
+}